@@ -1,6 +1,7 @@
 package de.colorscheme.app;
 
 import de.colorscheme.clustering.ColorData;
+import de.colorscheme.clustering.PaletteHierarchy;
 import de.colorscheme.output.ColorHarmony;
 import de.colorscheme.output.OutputColors;
 import de.fenris.logger.ColorLogger;
@@ -70,7 +71,14 @@ public class AppController implements Initializable {
     /**
      * The {@link ColorData} object used for all processes for the currently inspected image
      */
-    private static ColorData colorData;
+    private volatile ColorData colorData;
+    /**
+     * The palettes for every number of colors of the currently inspected image, if it was clustered with
+     * {@link de.colorscheme.clustering.PaletteEngine#KMEANS_HIERARCHICAL}, otherwise {@code null}. Only set and read
+     * on the JavaFX Application Thread and {@code null} while a {@link ReadImage} task runs, as switching the palette
+     * changes the {@link #colorData} the task reads.
+     */
+    private PaletteHierarchy paletteHierarchy;
     /**
      * The {@link StringProperty} for the {@link Label} displaying the progress in the GUI
      */
@@ -292,7 +300,7 @@ public class AppController implements Initializable {
      *
      * @return A {@link ColorData}: The {@link ColorData} object used for all processes for the currently inspected image
      */
-    public static ColorData getColorData() {
+    public ColorData getColorData() {
         return colorData;
     }
 
@@ -301,10 +309,30 @@ public class AppController implements Initializable {
      *
      * @param data A {@link ColorData}: The {@link ColorData} object used for all processes for the currently inspected image
      */
-    public static void setColorData(ColorData data) {
+    public void setColorData(ColorData data) {
         colorData = data;
     }
 
+    /**
+     * Gets the palettes for every number of colors of the currently inspected image
+     *
+     * @return A {@link PaletteHierarchy}: The palettes for every number of colors, or {@code null} if the image wasn't
+     * clustered hierarchically
+     */
+    public PaletteHierarchy getPaletteHierarchy() {
+        return paletteHierarchy;
+    }
+
+    /**
+     * Sets the palettes for every number of colors of the currently inspected image
+     *
+     * @param hierarchy A {@link PaletteHierarchy}: The palettes for every number of colors, or {@code null} if the
+     *                  image isn't clustered hierarchically
+     */
+    public void setPaletteHierarchy(PaletteHierarchy hierarchy) {
+        paletteHierarchy = hierarchy;
+    }
+
     /**
      * Initializes the GUI
      *
@@ -349,6 +377,16 @@ public class AppController implements Initializable {
         spinner.getStyleClass().add(Spinner.STYLE_CLASS_SPLIT_ARROWS_HORIZONTAL);
         spinner.setValueFactory(new SpinnerValueFactory.IntegerSpinnerValueFactory(1, 6, 4));
 
+        // Switches to the palette with the chosen number of colors right away if the image was clustered
+        // hierarchically, the hierarchy is only set while no task reads the color data
+        spinner.valueProperty().addListener((observable, oldValue, newValue) -> {
+            PaletteHierarchy hierarchy = paletteHierarchy;
+            ColorData data = colorData;
+            if (hierarchy != null && data != null) {
+                hierarchy.applyTo(data, newValue);
+            }
+        });
+
         // Sets the available languages in the choice box
         languageChoice.setItems(FXCollections.observableList(Arrays.asList("English", "Deutsch")));
         if (System.getProperty("user.language").equals("de")) {
@@ -615,6 +653,7 @@ public class AppController implements Initializable {
             if (IS_DEBUG) {
                 LOGGER.log(Level.INFO, harmony.toString());
             }
+            setPaletteHierarchy(null);
             ReadImage readImage = new ReadImage();
             readImage.setController(this);
             progressBar.progressProperty().bind(readImage.progressProperty());
@@ -1,11 +1,14 @@
 package de.colorscheme.app;
 
 import de.colorscheme.clustering.ColorData;
+import de.colorscheme.clustering.ImageLoader;
+import de.colorscheme.clustering.KMeansConfig;
+import de.colorscheme.clustering.PaletteEngine;
+import de.colorscheme.clustering.PaletteHierarchy;
 import de.fenris.logger.ColorLogger;
 import javafx.concurrent.Task;
+import javafx.scene.control.SpinnerValueFactory;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
@@ -13,9 +16,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import static de.colorscheme.app.AppController.*;
-import static de.colorscheme.clustering.ColorData.createColorData;
-import static de.colorscheme.clustering.ColorData.resize;
-import static de.colorscheme.clustering.KMeans.kMeans;
+import static de.colorscheme.clustering.ColorData.createHistogramColorData;
 
 /**
  * The class {@link ReadImage} reads the image selected by the user and generates the color scheme.
@@ -30,10 +31,35 @@ public class ReadImage extends Task<Void> {
      * Creates a {@link ColorLogger Logger} for this class
      */
     private static final Logger LOGGER = ColorLogger.newLogger(ReadImage.class.getName());
+    /**
+     * The number of bits per channel of the {@link de.colorscheme.clustering.ColorHistogram ColorHistogram} the
+     * image's pixels are folded into. 6 bits give at most 64 x 64 x 64 bins, each standing for the mean color of its
+     * pixels, so the clustering time doesn't depend on the size of the image.
+     */
+    private static final int HISTOGRAM_BITS = 6;
+    /**
+     * The largest number of pixels decoded from the image at once. Images whose decoder can jump to any part of the
+     * image, e.g. TIFF, are {@link ImageLoader#readHistogram(java.io.File, int, long) streamed} in regions of this
+     * size, so every pixel is counted. Other images are subsampled to this size while they are decoded, as the colors
+     * of 2 million evenly spread pixels hardly differ from the ones of all pixels, but decoding a 50 megapixel image in
+     * full takes seconds and hundreds of megabytes.
+     */
+    private static final long MAX_ANALYSIS_PIXELS = 2_000_000;
+    /**
+     * The system property naming the {@link PaletteEngine engine} used for determining the colors, e.g.
+     * {@code -Dcolorscheme.engine=octree}. {@link PaletteEngine#KMEANS} is used if it isn't set.
+     */
+    public static final String ENGINE_PROPERTY = "colorscheme.engine";
     /**
      * The {@link AppController} for this class
      */
     private AppController con = null;
+    /**
+     * The palettes for every number of colors, if the image is clustered with
+     * {@link PaletteEngine#KMEANS_HIERARCHICAL}. Only handed to the {@link AppController} once the task has
+     * {@link #succeeded() succeeded}, see there.
+     */
+    private PaletteHierarchy hierarchy = null;
 
     /**
      * Sets the {@link AppController} for this class
@@ -61,11 +87,14 @@ public class ReadImage extends Task<Void> {
                 getResBundle().getString("startFoundFile")
                         + System.lineSeparator());
 
-        BufferedImage img;
+        updateProgress(24, 100);
+        addToOutputField(getResBundle().getString("startReadingColours") + System.lineSeparator(), false);
+        TimeUnit.MILLISECONDS.sleep(1000);
+
         try {
-            img = findImage();
+            con.setColorData(readColors());
             if (IS_DEBUG) {
-                LOGGER.log(Level.INFO, "Found image.");
+                LOGGER.log(Level.INFO, "Read colors of image.");
             }
         } catch (IOException e) {
             LOGGER.log(Level.SEVERE, "IOException: Could not read file!");
@@ -73,18 +102,13 @@ public class ReadImage extends Task<Void> {
             return null;
         }
 
-        updateProgress(24, 100);
-        addToOutputField(getResBundle().getString("startReadingColours") + System.lineSeparator(), false);
-        TimeUnit.MILLISECONDS.sleep(1000);
-
-        setColorData(createColorData(img));
         if (!isCancelled()) {
             updateProgress(68, 100);
             addToOutputField(getResBundle().getString("startDeterminingColours") + System.lineSeparator(), false);
         }
 
         if (!isCancelled()) {
-            kMeans(getColorData(), con.getSpinner().getValue());
+            extractPalette(getPaletteEngine());
             updateProgress(86, 100);
             addToOutputField(getResBundle().getString("startCreatingScheme") + System.lineSeparator(), false);
             if (IS_DEBUG) {
@@ -113,25 +137,65 @@ public class ReadImage extends Task<Void> {
     }
 
     /**
-     * Gets the image from the path saved in  by {@link } and
-     * resizes it to 150 pixels on the longest side, using the {@link ColorData#resize(BufferedImage) resize} method,
-     * while keeping the aspect ratio.
+     * Determines the colors of the image with the passed engine. <br>
+     * With {@link PaletteEngine#KMEANS_HIERARCHICAL}, the image is clustered with the largest number of colors the
+     * spinner allows and the {@link PaletteHierarchy} is kept until the task has {@link #succeeded() succeeded}, so
+     * changing the spinner afterwards switches the palette right away.
      *
-     * @return A {@link BufferedImage} - The image selected by the user in its original size or scaled down, if it
-     * exceeds a certain Dimension
-     * @throws IOException An {@link IOException} - If the selected file cannot be read
+     * @param engine The {@link PaletteEngine} used for determining the colors
      */
-    private BufferedImage findImage() throws IOException {
-        BufferedImage image = ImageIO.read(con.getFileName().toFile());
-        if (IS_DEBUG) {
-            LOGGER.log(Level.INFO, String.format("Image found? %s", image != null ? "Yes" : "No"));
+    private void extractPalette(PaletteEngine engine) {
+        ColorData colorData = con.getColorData();
+        int totalColors = con.getSpinner().getValue();
+        if (engine != PaletteEngine.KMEANS_HIERARCHICAL) {
+            engine.extractPalette(colorData, totalColors);
+            return;
         }
-        assert image != null;
-        double width = image.getWidth();
-        double height = image.getHeight();
-        if (width > 150 || height > 150) {
-            image = resize(image);
+        int maxColors = ((SpinnerValueFactory.IntegerSpinnerValueFactory) con.getSpinner().getValueFactory()).getMax();
+        hierarchy = PaletteHierarchy.cluster(colorData, maxColors, new KMeansConfig());
+        hierarchy.applyTo(colorData, totalColors);
+    }
+
+    /**
+     * Hands the {@link PaletteHierarchy} to the {@link AppController} once {@link #call()} has returned. <br>
+     * Switching the palette changes the centroids and cluster numbers of the {@link ColorData} in place. As this is
+     * called on the JavaFX Application Thread after the task thread has finished reading the {@link ColorData},
+     * including the automatic download, the spinner can only switch the palette while no task reads it.
+     */
+    @Override
+    protected void succeeded() {
+        con.setPaletteHierarchy(hierarchy);
+    }
+
+    /**
+     * Gets the {@link PaletteEngine engine} named by the system property {@link #ENGINE_PROPERTY}. <br>
+     * If the property isn't set or names no engine, {@link PaletteEngine#KMEANS} is used.
+     *
+     * @return A {@link PaletteEngine} - The engine used for determining the colors
+     */
+    private static PaletteEngine getPaletteEngine() {
+        String name = System.getProperty(ENGINE_PROPERTY);
+        if (name == null) {
+            return PaletteEngine.KMEANS;
+        }
+        try {
+            return PaletteEngine.fromName(name);
+        } catch (IllegalArgumentException e) {
+            LOGGER.log(Level.WARNING, String.format("Unknown palette engine '%s', using k-means instead.", name));
+            return PaletteEngine.KMEANS;
         }
-        return image;
     }
-}
\ No newline at end of file
+
+    /**
+     * Reads the colors of the image from the path saved in {@link AppController#getFileName()} into a
+     * {@link de.colorscheme.clustering.ColorHistogram ColorHistogram}. <br>
+     * The image is {@link ImageLoader#readHistogram(java.io.File, int, long) streamed} into the histogram, so at most
+     * {@link #MAX_ANALYSIS_PIXELS} pixels are held in memory at once, whatever the size of the image.
+     *
+     * @return A {@link ColorData} - The colors of the image selected by the user
+     * @throws IOException An {@link IOException} - If the selected file cannot be read
+     */
+    private ColorData readColors() throws IOException {
+        return createHistogramColorData(con.getFileName().toFile(), HISTOGRAM_BITS, MAX_ANALYSIS_PIXELS);
+    }
+}
@@ -0,0 +1,31 @@
+package de.colorscheme.clustering;
+
+/**
+ * Finds the nearest centroid for a range of pixels, working directly on the channel arrays of a
+ * {@link PixelStore}. <br>
+ * The distances are compared as squared distances in {@code float} precision and the first centroid wins on a tie, so
+ * every implementation returns exactly the same clusters. {@link VectorKMeans} picks the fastest implementation
+ * available at runtime.
+ *
+ * @author &copy; 2024 Elisa Johanna Woelk | elisa-johanna.woelk@outlook.de | @fenris_22127
+ * @version 1.0
+ * @since 18.0.1
+ */
+interface AssignmentKernel {
+
+    /**
+     * Finds the nearest centroid for every pixel from {@code from} (inclusive) to {@code to} (exclusive)
+     *
+     * @param x              The red values of all pixels
+     * @param y              The green values of all pixels
+     * @param z              The blue values of all pixels
+     * @param from           The index of the first pixel of the range
+     * @param to             The index after the last pixel of the range
+     * @param centroids      The x, y and z coordinates of all centroids, one after another
+     * @param totalCentroids The number of centroids
+     * @param nearest        The array the number of the nearest centroid of each pixel is written to, the one of the
+     *                       pixel at {@code from} at index 0
+     */
+    void assign(float[] x, float[] y, float[] z, int from, int to, float[] centroids, int totalCentroids,
+                int[] nearest);
+}
@@ -0,0 +1,94 @@
+package de.colorscheme.clustering;
+
+import javafx.geometry.Point3D;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+
+/**
+ * The result of {@link AutoKSelector#select(ColorData, int, int, KMeansConfig)}: the number of colors picked, its
+ * palette and the score and Sum of Squared Errors of every number of colors evaluated
+ *
+ * @author &copy; 2024 Elisa Johanna Woelk | elisa-johanna.woelk@outlook.de | @fenris_22127
+ * @version 1.0
+ * @since 18.0.1
+ */
+public class AutoKResult {
+
+    /**
+     * The number of colors picked
+     */
+    private final int k;
+    /**
+     * The palette for the number of colors picked
+     */
+    private final List<Point3D> palette;
+    /**
+     * The Calinski-Harabasz score of every number of colors evaluated
+     */
+    private final SortedMap<Integer, Double> scores;
+    /**
+     * The Sum of Squared Errors of every number of colors evaluated
+     */
+    private final SortedMap<Integer, Double> sumSquaredErrors;
+
+    /**
+     * Creates the result
+     *
+     * @param k                The number of colors picked
+     * @param palette          The palette for the number of colors picked
+     * @param scores           The Calinski-Harabasz score of every number of colors evaluated
+     * @param sumSquaredErrors The Sum of Squared Errors of every number of colors evaluated
+     */
+    AutoKResult(int k, List<Point3D> palette, SortedMap<Integer, Double> scores,
+                SortedMap<Integer, Double> sumSquaredErrors) {
+        this.k = k;
+        this.palette = Collections.unmodifiableList(palette);
+        this.scores = Collections.unmodifiableSortedMap(scores);
+        this.sumSquaredErrors = Collections.unmodifiableSortedMap(sumSquaredErrors);
+    }
+
+    /**
+     * Returns the number of colors picked
+     *
+     * @return An {@link Integer int}: The number of colors with the highest score
+     */
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * Returns the palette for the number of colors picked
+     *
+     * @return An unmodifiable {@link List} of {@link Point3D Point3Ds}: The colors in sRGB
+     */
+    public List<Point3D> getPalette() {
+        return palette;
+    }
+
+    /**
+     * Returns the Calinski-Harabasz score of every number of colors evaluated. A higher score means clusters that are
+     * tighter and further apart.
+     *
+     * @return An unmodifiable {@link SortedMap}: The score per number of colors, {@link Double#NaN NaN} for a single
+     * color
+     */
+    public SortedMap<Integer, Double> getScores() {
+        return scores;
+    }
+
+    /**
+     * Returns the Sum of Squared Errors of every number of colors evaluated, e.g. for plotting an elbow curve
+     *
+     * @return An unmodifiable {@link SortedMap}: The Sum of Squared Errors per number of colors
+     */
+    public SortedMap<Integer, Double> getSumSquaredErrors() {
+        return sumSquaredErrors;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AutoKResult{k=%d, scores=%s}", k, scores);
+    }
+}
@@ -0,0 +1,150 @@
+package de.colorscheme.clustering;
+
+import javafx.geometry.Point3D;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Picks the number of colors automatically, for images clustered without anyone choosing it. <br>
+ * <ol>
+ *     <li>
+ *         {@link KMeans} runs once for every number of colors in the passed range. The runs are spread over
+ *         {@link KMeansConfig#getThreads() several threads} and all of them read the same {@link PixelStore}, each
+ *         through its own {@link ColorData} holding only its centroids and cluster numbers, so the pixels are neither
+ *         copied nor changed. Every run itself uses a single thread, so the threads aren't multiplied by those of a
+ *         {@link KMeansMode#PARALLEL parallel} engine or of {@link KMeansConfig#getRestarts() restarts}.
+ *     </li>
+ *     <li>
+ *         Every run is scored with the Calinski-Harabasz index: the spread between the clusters per degree of freedom
+ *         divided by the spread within the clusters per degree of freedom. Both follow from the Sum of Squared Errors
+ *         of the run and the spread of all pixels around their mean, which is calculated once.
+ *     </li>
+ *     <li>
+ *         The number of colors with the highest score is picked, the smaller one on a tie. Its palette and cluster
+ *         numbers are copied to the passed {@link ColorData}.
+ *     </li>
+ * </ol>
+ * As the runs are independent, the wall-clock time is close to that of the slowest single run, as long as there are
+ * enough threads.
+ *
+ * @author &copy; 2024 Elisa Johanna Woelk | elisa-johanna.woelk@outlook.de | @fenris_22127
+ * @version 1.0
+ * @since 18.0.1
+ */
+public final class AutoKSelector {
+
+    /**
+     * Private constructor to hide the public one
+     */
+    private AutoKSelector() {
+    }
+
+    /**
+     * Runs {@link KMeans} for every number of colors from {@code minK} to {@code maxK} and picks the one with the
+     * highest Calinski-Harabasz score. <br>
+     * The {@link KMeansConfig#getConvergence() time budget} of the passed {@link KMeansConfig}, if any, applies to the
+     * whole selection. In {@link ClusteringColorSpace#LAB Lab}, the pixels are converted only once and the scores are
+     * calculated in Lab.
+     *
+     * @param colorData A {@link ColorData} object: The instance used for all processes for the currently inspected
+     *                  image, receives the palette picked
+     * @param minK      An {@link Integer int}: The smallest number of colors evaluated, at least 1
+     * @param maxK      An {@link Integer int}: The largest number of colors evaluated, at least {@code minK}
+     * @param config    A {@link KMeansConfig}: The settings for every run
+     * @return An {@link AutoKResult} - The number of colors picked, its palette and the score curve
+     */
+    public static AutoKResult select(ColorData colorData, int minK, int maxK, KMeansConfig config) {
+        if (minK < 1 || maxK < minK) {
+            throw new IllegalArgumentException(
+                    String.format("Range of colors must not be empty! Actual value: %d to %d", minK, maxK));
+        }
+        long start = System.currentTimeMillis();
+        boolean lab = config.getColorSpace() == ClusteringColorSpace.LAB;
+        PixelStore pixels = lab ? CieLab.toLab(colorData.getPixels()) : colorData.getPixels();
+        double totalSquares = totalSumOfSquares(pixels);
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(config.getThreads(), maxK - minK + 1));
+        KMeansConfig runConfig = config.copy().withThreads(1);
+        List<Future<ColorData>> runs = new ArrayList<>();
+        SortedMap<Integer, Double> scores = new TreeMap<>();
+        SortedMap<Integer, Double> sumSquaredErrors = new TreeMap<>();
+        ColorData best = null;
+        int bestK = minK;
+        try {
+            for (int k = minK; k <= maxK; k++) {
+                final int totalCentroids = k;
+                runs.add(pool.submit(() -> {
+                    ColorData view = new ColorData(pixels);
+                    MultiRestartKMeans.run(view, totalCentroids, runConfig, start);
+                    return view;
+                }));
+            }
+            for (int k = minK; k <= maxK; k++) {
+                ColorData view = runs.get(k - minK).get();
+                double sse = view.calculateTotalSumSquaredDistances(view.getCentroids());
+                double score = calinskiHarabasz(totalSquares, sse, k, pixels.getTotalWeight());
+                sumSquaredErrors.put(k, sse);
+                scores.put(k, score);
+                if (best == null || score > scores.get(bestK) || Double.isNaN(scores.get(bestK))) {
+                    best = view;
+                    bestK = k;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Selecting the number of colors was interrupted!", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Clustering failed while selecting the number of colors!", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        if (lab) {
+            KMeans.copyFromLab(best, colorData);
+        } else {
+            colorData.copyClustering(best);
+        }
+        return new AutoKResult(bestK, new ArrayList<Point3D>(colorData.getCentroids()), scores, sumSquaredErrors);
+    }
+
+    /**
+     * Calculates the Calinski-Harabasz index of a clustering
+     *
+     * @param totalSquares     The weighted sum of the squared distances of all pixels to their mean
+     * @param sumSquaredErrors The Sum of Squared Errors of the clustering
+     * @param k                The number of clusters
+     * @param n                The number of pixels
+     * @return A {@link Double double} - The index, {@link Double#NaN NaN} if it isn't defined for the number of
+     * clusters and {@link Double#POSITIVE_INFINITY infinity} if every pixel matches its centroid
+     */
+    private static double calinskiHarabasz(double totalSquares, double sumSquaredErrors, int k, long n) {
+        if (k < 2 || n <= k) {
+            return Double.NaN;
+        }
+        double between = Math.max(0.0, totalSquares - sumSquaredErrors) / (k - 1);
+        return between / (sumSquaredErrors / (n - k));
+    }
+
+    /**
+     * Calculates the weighted sum of the squared distances of all pixels to their mean in a single pass
+     *
+     * @param pixels The pixels of the image
+     * @return A {@link Double double} - The weighted sum of the squared distances
+     */
+    private static double totalSumOfSquares(PixelStore pixels) {
+        ClusterSums sums = new ClusterSums(1);
+        for (int p = 0; p < pixels.size(); p++) {
+            sums.add(0, pixels.getX(p), pixels.getY(p), pixels.getZ(p), pixels.getWeight(p));
+        }
+        List<Point3D> mean = new ArrayList<>();
+        mean.add(new Point3D(0, 0, 0));
+        return sums.updateCentroids(mean);
+    }
+}
@@ -0,0 +1,133 @@
+package de.colorscheme.clustering;
+
+/**
+ * Finds the centroids that can be the nearest one for any point of a box of the color space, for the engines that
+ * assign a whole group of pixels at a time: {@link KdTreeKMeans} and {@link GridKMeans}. <br>
+ * The boxes are stored one after another in a {@code float} array, six values per box: the smallest x, y and z
+ * coordinates followed by the largest ones. <br>
+ * A centroid is only ruled out for a box with a small {@link #MARGIN safety margin}, so every pixel of the box still
+ * ends up at the centroid {@link KMeans#nearestCentroid(double[], int, double, double, double)} would pick.
+ *
+ * @author &copy; 2024 Elisa Johanna Woelk | elisa-johanna.woelk@outlook.de | @fenris_22127
+ * @version 1.0
+ * @since 18.0.1
+ */
+final class CandidateFilter {
+
+    /**
+     * How much farther than the closest candidate, as a squared distance, a candidate has to be from every point of a
+     * box to be ruled out. Covers the rounding errors of the distances.
+     */
+    private static final double MARGIN = 1e-6;
+
+    /**
+     * Private constructor to hide the public one
+     */
+    private CandidateFilter() {
+    }
+
+    /**
+     * Copies the passed candidates that can be the nearest centroid for any point of the passed box. The candidate
+     * closest to the middle of the box is always kept, every other one is ruled out if it is farther than that one
+     * from every point of the box. <br>
+     * The difference of the squared distances to two centroids grows linearly through the box, so it is enough to
+     * check the corner lying farthest in the direction from the closest candidate towards the other one.
+     *
+     * @param centroids       The x, y and z coordinates of all centroids, one after another
+     * @param candidates      The numbers of the candidates, in ascending order
+     * @param totalCandidates The number of candidates
+     * @param bounds          The boxes, six values per box
+     * @param box             The index of the box
+     * @param kept            The array the numbers of the kept candidates are written to, in ascending order, so the
+     *                        first centroid still wins on a tie
+     * @return An {@link Integer int} - The number of kept candidates, at least 1
+     */
+    static int filter(double[] centroids, int[] candidates, int totalCandidates, float[] bounds, int box,
+                      int[] kept) {
+        int b = box * 6;
+        double midX = (bounds[b] + (double) bounds[b + 3]) / 2;
+        double midY = (bounds[b + 1] + (double) bounds[b + 4]) / 2;
+        double midZ = (bounds[b + 2] + (double) bounds[b + 5]) / 2;
+        int closest = candidates[0];
+        double minDist = Double.MAX_VALUE;
+        for (int c = 0; c < totalCandidates; c++) {
+            double dist = squaredDistance(centroids, candidates[c], midX, midY, midZ);
+            if (dist < minDist) {
+                minDist = dist;
+                closest = candidates[c];
+            }
+        }
+
+        int totalKept = 0;
+        for (int c = 0; c < totalCandidates; c++) {
+            int i = candidates[c];
+            if (i != closest) {
+                double cornerX = centroids[i * 3] > centroids[closest * 3] ? bounds[b + 3] : bounds[b];
+                double cornerY = centroids[i * 3 + 1] > centroids[closest * 3 + 1] ? bounds[b + 4] : bounds[b + 1];
+                double cornerZ = centroids[i * 3 + 2] > centroids[closest * 3 + 2] ? bounds[b + 5] : bounds[b + 2];
+                if (squaredDistance(centroids, i, cornerX, cornerY, cornerZ)
+                        - squaredDistance(centroids, closest, cornerX, cornerY, cornerZ) > MARGIN) {
+                    continue;
+                }
+            }
+            kept[totalKept++] = i;
+        }
+        return totalKept;
+    }
+
+    /**
+     * Finds the nearest of the passed candidates to a point. The first candidate wins on a tie, so with the candidates
+     * in ascending order, the result is the same as the one of
+     * {@link KMeans#nearestCentroid(double[], int, double, double, double)}.
+     *
+     * @param centroids       The x, y and z coordinates of all centroids, one after another
+     * @param candidates      The numbers of the candidates, in ascending order
+     * @param totalCandidates The number of candidates
+     * @param x               The x coordinate of the point
+     * @param y               The y coordinate of the point
+     * @param z               The z coordinate of the point
+     * @return An {@link Integer int} - The number of the nearest candidate
+     */
+    static int nearest(double[] centroids, int[] candidates, int totalCandidates, double x, double y, double z) {
+        int nearest = candidates[0];
+        double minDist = Double.MAX_VALUE;
+        for (int c = 0; c < totalCandidates; c++) {
+            double dist = squaredDistance(centroids, candidates[c], x, y, z);
+            if (dist < minDist) {
+                minDist = dist;
+                nearest = candidates[c];
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Checks whether all points of the passed box have the same color
+     *
+     * @param bounds The boxes, six values per box
+     * @param box    The index of the box
+     * @return A {@link Boolean boolean} - Whether the smallest and the largest coordinates of the box are the same
+     */
+    static boolean isSingleColor(float[] bounds, int box) {
+        int b = box * 6;
+        return bounds[b] == bounds[b + 3] && bounds[b + 1] == bounds[b + 4] && bounds[b + 2] == bounds[b + 5];
+    }
+
+    /**
+     * Calculates the squared distance between a centroid and a point, the same way as
+     * {@link KMeans#nearestCentroid(double[], int, double, double, double)}
+     *
+     * @param centroids  The x, y and z coordinates of all centroids, one after another
+     * @param centroidNo The number of the centroid
+     * @param x          The x coordinate of the point
+     * @param y          The y coordinate of the point
+     * @param z          The z coordinate of the point
+     * @return A {@link Double double} - The squared distance
+     */
+    static double squaredDistance(double[] centroids, int centroidNo, double x, double y, double z) {
+        double dx = x - centroids[centroidNo * 3];
+        double dy = y - centroids[centroidNo * 3 + 1];
+        double dz = z - centroids[centroidNo * 3 + 2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+}
@@ -0,0 +1,216 @@
+package de.colorscheme.clustering;
+
+import javafx.geometry.Point3D;
+
+import java.util.Arrays;
+
+/**
+ * Converts colors between sRGB and CIELAB (D65 white point) for
+ * {@link ClusteringColorSpace#LAB clustering in Lab}. <br>
+ * The pixels are converted with two lookup tables computed once: one turning an sRGB value into its linear value and
+ * one for the cube root of the Lab transfer function, so no {@link Math#pow(double, double) Math.pow()} is called per
+ * pixel. Only the centroids, one per color, are converted back to sRGB with the exact formulas. <br>
+ * The converted colors are stored as L, a + {@link #AB_OFFSET} and b + {@link #AB_OFFSET}, so every coordinate is
+ * between 0 and 255 like an sRGB value and the engines binning colors by value work unchanged. The offset doesn't
+ * change any distance.
+ *
+ * @author &copy; 2024 Elisa Johanna Woelk | elisa-johanna.woelk@outlook.de | @fenris_22127
+ * @version 1.0
+ * @since 18.0.1
+ */
+final class CieLab {
+
+    /**
+     * The value added to a and b, so that they are stored as positive values
+     */
+    static final double AB_OFFSET = 128.0;
+    /**
+     * The x coordinate of the D65 white point
+     */
+    private static final double WHITE_X = 0.95047;
+    /**
+     * The z coordinate of the D65 white point
+     */
+    private static final double WHITE_Z = 1.08883;
+    /**
+     * Below this value, the Lab transfer function is linear instead of a cube root
+     */
+    private static final double EPSILON = 216.0 / 24389.0;
+    /**
+     * The slope of the linear part of the Lab transfer function
+     */
+    private static final double KAPPA = 24389.0 / 27.0;
+    /**
+     * The number of bits of the index of a slot in the cache of converted colors
+     */
+    private static final int CACHE_BITS = 14;
+    /**
+     * The number of steps the range from 0 to 1 is divided into in {@link #TRANSFER}
+     */
+    private static final int TRANSFER_STEPS = 1 << 14;
+    /**
+     * The linear value of each sRGB value from 0 to 255
+     */
+    private static final double[] LINEAR = new double[257];
+    /**
+     * The Lab transfer function at every step between 0 and 1
+     */
+    private static final double[] TRANSFER = new double[TRANSFER_STEPS + 2];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            double v = i / 255.0;
+            LINEAR[i] = v <= 0.04045 ? v / 12.92 : Math.pow((v + 0.055) / 1.055, 2.4);
+        }
+        LINEAR[256] = LINEAR[255];
+        for (int i = 0; i <= TRANSFER_STEPS; i++) {
+            double t = (double) i / TRANSFER_STEPS;
+            TRANSFER[i] = t > EPSILON ? Math.cbrt(t) : (KAPPA * t + 16) / 116;
+        }
+        TRANSFER[TRANSFER_STEPS + 1] = TRANSFER[TRANSFER_STEPS];
+    }
+
+    /**
+     * Private constructor to hide the public one
+     */
+    private CieLab() {
+    }
+
+    /**
+     * Converts all colors of a {@link PixelStore} from sRGB to Lab, keeping their weights. <br>
+     * Neighbouring pixels often share their color, so the results for colors with whole-numbered values are kept in a
+     * small cache of {@link #CACHE_BITS 2^CACHE_BITS} slots and a repeated color is looked up instead of converted.
+     *
+     * @param pixels The pixels in sRGB
+     * @return A {@link PixelStore} - The pixels in Lab, stored as L, a + {@link #AB_OFFSET} and b + {@link #AB_OFFSET}
+     */
+    static PixelStore toLab(PixelStore pixels) {
+        PixelStore lab = new PixelStore(pixels.size(), pixels.isWeighted());
+        int[] cachedColors = new int[1 << CACHE_BITS];
+        Arrays.fill(cachedColors, -1);
+        float[] cachedLab = new float[3 << CACHE_BITS];
+        float[] converted = new float[3];
+
+        for (int p = 0; p < pixels.size(); p++) {
+            float x = pixels.getX(p);
+            float y = pixels.getY(p);
+            float z = pixels.getZ(p);
+            int r = (int) x;
+            int g = (int) y;
+            int b = (int) z;
+            if (r != x || g != y || b != z || (r | g | b) >>> 8 != 0) {
+                convert(x, y, z, converted, 0);
+                lab.add(converted[0], converted[1], converted[2], pixels.getWeight(p));
+                continue;
+            }
+            int color = (r << 16) | (g << 8) | b;
+            int slot = (color * 0x9E3779B9) >>> (32 - CACHE_BITS);
+            if (cachedColors[slot] != color) {
+                cachedColors[slot] = color;
+                convert(x, y, z, cachedLab, slot * 3);
+            }
+            lab.add(cachedLab[slot * 3], cachedLab[slot * 3 + 1], cachedLab[slot * 3 + 2], pixels.getWeight(p));
+        }
+        return lab;
+    }
+
+    /**
+     * Converts a single color from sRGB to Lab
+     *
+     * @param x      The red value between 0 and 255
+     * @param y      The green value between 0 and 255
+     * @param z      The blue value between 0 and 255
+     * @param lab    The array the color is written to, as L, a + {@link #AB_OFFSET} and b + {@link #AB_OFFSET}
+     * @param offset The index in {@code lab} L is written to
+     */
+    private static void convert(float x, float y, float z, float[] lab, int offset) {
+        double r = linear(x);
+        double g = linear(y);
+        double b = linear(z);
+        double fx = transfer((0.4124564 * r + 0.3575761 * g + 0.1804375 * b) / WHITE_X);
+        double fy = transfer(0.2126729 * r + 0.7151522 * g + 0.0721750 * b);
+        double fz = transfer((0.0193339 * r + 0.1191920 * g + 0.9503041 * b) / WHITE_Z);
+        lab[offset] = (float) (116 * fy - 16);
+        lab[offset + 1] = (float) (500 * (fx - fy) + AB_OFFSET);
+        lab[offset + 2] = (float) (200 * (fy - fz) + AB_OFFSET);
+    }
+
+    /**
+     * Converts a single color from sRGB to Lab, e.g. a starting centroid passed by the caller
+     *
+     * @param rgb The color in sRGB, each value between 0 and 255
+     * @return A {@link Point3D} - The color as L, a + {@link #AB_OFFSET} and b + {@link #AB_OFFSET}
+     */
+    static Point3D toLab(Point3D rgb) {
+        float[] lab = new float[3];
+        convert((float) rgb.getX(), (float) rgb.getY(), (float) rgb.getZ(), lab, 0);
+        return new Point3D(lab[0], lab[1], lab[2]);
+    }
+
+    /**
+     * Converts a color from Lab, as stored by {@link #toLab(PixelStore)}, back to sRGB
+     *
+     * @param lab The color as L, a + {@link #AB_OFFSET} and b + {@link #AB_OFFSET}
+     * @return A {@link Point3D} - The color in sRGB, each value clamped to the range of 0 to 255
+     */
+    static Point3D toRgb(Point3D lab) {
+        double fy = (lab.getX() + 16) / 116;
+        double fx = fy + (lab.getY() - AB_OFFSET) / 500;
+        double fz = fy - (lab.getZ() - AB_OFFSET) / 200;
+        double x = inverseTransfer(fx) * WHITE_X;
+        double y = inverseTransfer(fy);
+        double z = inverseTransfer(fz) * WHITE_Z;
+        return new Point3D(
+                gamma(3.2404542 * x - 1.5371385 * y - 0.4985314 * z),
+                gamma(-0.9692660 * x + 1.8760108 * y + 0.0415560 * z),
+                gamma(0.0556434 * x - 0.2040259 * y + 1.0572252 * z));
+    }
+
+    /**
+     * Looks up the linear value of an sRGB value, interpolating between the table entries for mean colors that aren't
+     * whole numbers
+     *
+     * @param value The sRGB value between 0 and 255
+     * @return A {@link Double double} - The linear value between 0 and 1
+     */
+    private static double linear(float value) {
+        //compared directly, as Math.min() and Math.max() also handle NaN and -0.0, which is slow in this hot loop
+        float v = value < 0f ? 0f : (value > 255f ? 255f : value);
+        int i = (int) v;
+        return LINEAR[i] + (LINEAR[i + 1] - LINEAR[i]) * (v - i);
+    }
+
+    /**
+     * Looks up the Lab transfer function, interpolating between the table entries
+     *
+     * @param t The value between 0 and 1
+     * @return A {@link Double double} - The cube root of the value, or its linear approximation near 0
+     */
+    private static double transfer(double t) {
+        double v = (t < 0.0 ? 0.0 : (t > 1.0 ? 1.0 : t)) * TRANSFER_STEPS;
+        int i = (int) v;
+        return TRANSFER[i] + (TRANSFER[i + 1] - TRANSFER[i]) * (v - i);
+    }
+
+    /**
+     * Inverts the Lab transfer function
+     *
+     * @param f The value of the transfer function
+     * @return A {@link Double double} - The value the transfer function was applied to
+     */
+    private static double inverseTransfer(double f) {
+        double cube = f * f * f;
+        return cube > EPSILON ? cube : (116 * f - 16) / KAPPA;
+    }
+
+    /**
+     * Converts a linear value to an sRGB value
+     *
+     * @param linear The linear value
+     * @return A {@link Double double} - The sRGB value, clamped to the range of 0 to 255
+     */
+    private static double gamma(double linear) {
+        double v = linear <= 0.0031308 ? 12.92 * linear : 1.055 * Math.pow(linear, 1 / 2.4) - 0.055;
+        return Math.max(0.0, Math.min(255.0, v * 255));
+    }
+}
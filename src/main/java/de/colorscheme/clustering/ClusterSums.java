@@ -0,0 +1,130 @@
+package de.colorscheme.clustering;
+
+import javafx.geometry.Point3D;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Running accumulators for the update step of {@link KMeans}: the weighted sum of the x, y and z values and the total
+ * weight of every cluster, as well as the weighted sum of the squared lengths of all points. <br>
+ * One {@link ClusterSums} object can be filled in a single pass over the pixels. Several of them, each filled from a
+ * different range of pixels, can be {@link #merge(ClusterSums) merged}. From the accumulated values the new centroids
+ * and the Sum of Squared Errors around them can be calculated without another pass over the pixels.
+ *
+ * @author &copy; 2024 Elisa Johanna Woelk | elisa-johanna.woelk@outlook.de | @fenris_22127
+ * @version 1.0
+ * @since 18.0.1
+ */
+final class ClusterSums {
+
+    /**
+     * The weighted sum of the x values of each cluster
+     */
+    private final double[] sumX;
+    /**
+     * The weighted sum of the y values of each cluster
+     */
+    private final double[] sumY;
+    /**
+     * The weighted sum of the z values of each cluster
+     */
+    private final double[] sumZ;
+    /**
+     * The number of pixels in each cluster
+     */
+    private final long[] weight;
+    /**
+     * The weighted sum of the squared length of all points added
+     */
+    private double sumSquares = 0.0;
+
+    /**
+     * Creates empty accumulators for the passed number of clusters
+     *
+     * @param totalCentroids An {@link Integer int}: The number of clusters
+     */
+    ClusterSums(int totalCentroids) {
+        sumX = new double[totalCentroids];
+        sumY = new double[totalCentroids];
+        sumZ = new double[totalCentroids];
+        weight = new long[totalCentroids];
+    }
+
+    /**
+     * Returns the number of clusters these accumulators were created for
+     *
+     * @return An {@link Integer int} - The number of clusters
+     */
+    int size() {
+        return weight.length;
+    }
+
+    /**
+     * Sets all accumulated values back to 0, so the same object can be filled again in the next iteration
+     */
+    void reset() {
+        Arrays.fill(sumX, 0.0);
+        Arrays.fill(sumY, 0.0);
+        Arrays.fill(sumZ, 0.0);
+        Arrays.fill(weight, 0);
+        sumSquares = 0.0;
+    }
+
+    /**
+     * Adds a point to a cluster
+     *
+     * @param cluster The number of the cluster the point is assigned to
+     * @param x       The x coordinate of the point
+     * @param y       The y coordinate of the point
+     * @param z       The z coordinate of the point
+     * @param w       The number of pixels the point stands for
+     */
+    void add(int cluster, double x, double y, double z, int w) {
+        sumX[cluster] += x * w;
+        sumY[cluster] += y * w;
+        sumZ[cluster] += z * w;
+        weight[cluster] += w;
+        sumSquares += (x * x + y * y + z * z) * w;
+    }
+
+    /**
+     * Adds the values accumulated by another {@link ClusterSums} object to these
+     *
+     * @param other The {@link ClusterSums} to be merged into these
+     */
+    void merge(ClusterSums other) {
+        for (int i = 0; i < weight.length; i++) {
+            sumX[i] += other.sumX[i];
+            sumY[i] += other.sumY[i];
+            sumZ[i] += other.sumZ[i];
+            weight[i] += other.weight[i];
+        }
+        sumSquares += other.sumSquares;
+    }
+
+    /**
+     * Sets every centroid to the mean of its cluster and calculates the Sum of Squared Errors around the new
+     * centroids. <br>
+     * A cluster without any pixels keeps its previous centroid. <br>
+     * The Sum of Squared Errors of a cluster is the sum of the squared lengths of its points minus its weight times
+     * the squared length of its mean, so no further pass over the pixels is needed.
+     *
+     * @param centroids The {@link List} of centroids to be updated
+     * @return A {@link Double double} - The Sum of Squared Errors around the updated centroids
+     */
+    double updateCentroids(List<Point3D> centroids) {
+        double explained = 0.0;
+        for (int i = 0; i < weight.length; i++) {
+            if (weight[i] == 0) {
+                continue;
+            }
+            double meanX = sumX[i] / weight[i];
+            double meanY = sumY[i] / weight[i];
+            double meanZ = sumZ[i] / weight[i];
+            centroids.set(i, new Point3D(meanX, meanY, meanZ));
+            explained += (meanX * sumX[i]) + (meanY * sumY[i]) + (meanZ * sumZ[i]);
+        }
+        return Math.max(0.0, sumSquares - explained);
+    }
+}
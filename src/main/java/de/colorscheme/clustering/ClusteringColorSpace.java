@@ -0,0 +1,20 @@
+package de.colorscheme.clustering;
+
+/**
+ * The color spaces {@link KMeans} can measure the distances between colors in
+ *
+ * @author &copy; 2024 Elisa Johanna Woelk | elisa-johanna.woelk@outlook.de | @fenris_22127
+ * @version 1.0
+ * @since 18.0.1
+ */
+public enum ClusteringColorSpace {
+    /**
+     * Clusters the red, green and blue values as they are stored in the image
+     */
+    RGB,
+    /**
+     * Converts the pixels to {@link CieLab CIELAB} before clustering and the centroids back to sRGB afterwards.
+     * Distances in Lab follow the differences a person sees, so colors that look alike end up in the same cluster.
+     */
+    LAB
+}
@@ -1,14 +1,20 @@
 package de.colorscheme.clustering;
 
 import de.colorscheme.app.AppController;
+import de.colorscheme.utils.ImageScaler;
 import de.fenris.logger.ColorLogger;
 import javafx.geometry.Point3D;
 
 import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.ListIterator;
 import java.util.Random;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -31,21 +37,57 @@ public class ColorData {
     private static final Logger LOGGER = ColorLogger.newLogger(ColorData.class.getName());
 
     /**
-     * An Instance of the '{@link Random} class used to generate random values
+     * An Instance of the '{@link Random} class used to generate random values, {@link #setSeed(long) seeded} for
+     * reproducible results
      */
-    private static final Random random = new Random();
+    private Random random = new Random();
     /**
-     * {@link LinkedList} storing {@link Pixels Pixels} objects, created from each pixel's {@link Color#getRGB() color}
+     * The value for the bits per channel passed to the constructor, if every pixel is to be stored on its own instead
+     * of being folded into a {@link ColorHistogram}
      */
-    protected final LinkedList<Pixels> pixelColor = new LinkedList<>();
+    public static final int NO_HISTOGRAM = 0;
+
+    /**
+     * {@link PixelStore} storing the red, green and blue values of each pixel's {@link Color#getRGB() color}, or of
+     * each bin of the {@link ColorHistogram} the pixels were folded into
+     */
+    protected final PixelStore pixelColor;
+    /**
+     * The number of the cluster each pixel in {@link #pixelColor} is assigned to, stored at the pixel's index
+     */
+    private final short[] clusterNo;
     /**
      * {@link LinkedList} storing {@link Integer Integers} with the indices of Centroids
      */
     private final LinkedList<Integer> indicesOfCentroids = new LinkedList<>();
     /**
-     * The {@link LinkedList List} containing the calculated centroids
+     * The {@link ArrayList List} containing the calculated centroids
      */
-    private final LinkedList<Point3D> centroids = new LinkedList<>();
+    private final List<Point3D> centroids = new ArrayList<>();
+    /**
+     * The starting centroids passed by the caller, which aren't pixels of the image and so aren't part of
+     * {@link #indicesOfCentroids}
+     */
+    private final List<Point3D> seedCentroids = new ArrayList<>();
+    /**
+     * The squared distance of each pixel to its closest centroid in {@link #seedCentroids} and
+     * {@link #indicesOfCentroids}, kept up to date by
+     * {@link #updateClosestCentroids()}, so that {@link #fitness(int)} doesn't compare every pixel to every centroid
+     */
+    private double[] closestSquaredDistance;
+    /**
+     * Whether the pixel at each index is one of the {@link #indicesOfCentroids centroids}
+     */
+    private boolean[] isCentroid;
+    /**
+     * The number of {@link #indicesOfCentroids centroids} already taken into account in
+     * {@link #closestSquaredDistance}
+     */
+    private int closestCentroidsCount = 0;
+    /**
+     * The {@link ClusterSums accumulators} reused by {@link #recomputeCentroids(int)} in every iteration
+     */
+    private ClusterSums clusterSums;
     /**
      * Used to store the number of pixels in the image to test for possible errors while recording pixels to list
      */
@@ -69,53 +111,89 @@ public class ColorData {
     /**
      * ✓ <i>Successfully reads data from image as Point3D's to pixel into list</i> <br>
      * <b>Alternate constructor invocation:</b><br>
-     * Reads content of provided file via {@link ImageIO} into a {@link BufferedImage} and traverses it pixel by pixel,
-     * determining the {@link Color} of each pixel. <br>
-     * Translates r, g and b values of the current pixel's color to value
-     * for x, y and z coordinates of a {@link Point3D} object. <br>
-     * Updates the {@link #minimum} and {@link #maximum} values for x, y and z. <br>
-     * Adds the {@link Point3D} object to the {@link LinkedList List} {@link #pixelColor} storing all pixels
-     * translated to {@link Point3D} objects. <br>
+     * Reads content of provided file via {@link ImageIO} into a {@link BufferedImage} and traverses it row by row,
+     * {@link RasterReader#readRow(BufferedImage, int, int[]) reading} the colors of a whole row straight from the
+     * image's raster, so no object is created per pixel. <br>
+     * Tracks the smallest and largest r, g and b values and stores them in {@link #minimum} and {@link #maximum} once
+     * all pixels are read. <br>
+     * Adds the r, g and b values to the {@link PixelStore} {@link #pixelColor} storing all pixels or, if a number of
+     * bits per channel is passed, to a {@link ColorHistogram} that is turned into a
+     * {@link PixelStore#isWeighted() weighted} {@link PixelStore} once all pixels are read. <br>
      * Checks, if the {@link #pixelCount total amount of pixels} determined by
-     * <span color="#6897BB">width * height</span> match the number of elements stored in {@link #pixelColor}. <br>
+     * <span color="#6897BB">width * height</span> match the number of pixels stored in {@link #pixelColor}. <br>
      * If the {@link #pixelCount total amount of pixels} and the amount of pixels stored in {@link #pixelColor} differ,
      * a custom exception {@link PixelListSizeException PixelListSizeException} is thrown and the
      * {@link javafx.concurrent.Task task} in {@link AppController} is canceled.
      * The user is informed about the error via the text field.
      *
-     * @param image A {@link BufferedImage}: The image to be read
+     * @param image         A {@link BufferedImage}: The image to be read
+     * @param histogramBits An {@link Integer int}: The bits per channel of the {@link ColorHistogram} the pixels are
+     *                      folded into, or {@link #NO_HISTOGRAM} to store every pixel on its own
      **/
-    private ColorData(BufferedImage image) {
-        try {
-            double width = image.getWidth();
-            double height = image.getHeight();
-
-            //Read pixel to color, then to Point3D and store in the list
-            for (int y = 0; y < height; y++) {
-                for (int x = 0; x < width; x++) {
-                    Color c = new Color(image.getRGB(x, y));
-                    Point3D p = new Point3D(c.getRed(), c.getGreen(), c.getBlue());
-
-                    pixelColor.add(new Pixels(p));
-                    updateMax(p);
-                    updateMin(p);
+    private ColorData(BufferedImage image, int histogramBits) {
+        double width = image.getWidth();
+        double height = image.getHeight();
+        ColorHistogram histogram = histogramBits == NO_HISTOGRAM ? null : new ColorHistogram(histogramBits);
+        PixelStore pixels = histogram == null ? new PixelStore(image.getWidth() * image.getHeight()) : null;
+
+        //Read a row of colors at a time and store them in the pixel store or histogram
+        int[] row = new int[image.getWidth()];
+        int[] min = {255, 255, 255};
+        int[] max = {0, 0, 0};
+        for (int y = 0; y < height; y++) {
+            RasterReader.readRow(image, y, row);
+            for (int x = 0; x < width; x++) {
+                int rgb = row[x];
+                int red = (rgb >> 16) & 0xFF;
+                int green = (rgb >> 8) & 0xFF;
+                int blue = rgb & 0xFF;
+
+                if (histogram != null) {
+                    histogram.add(rgb);
+                } else {
+                    pixels.add(red, green, blue);
                 }
+                min[0] = Math.min(min[0], red);
+                min[1] = Math.min(min[1], green);
+                min[2] = Math.min(min[2], blue);
+                max[0] = Math.max(max[0], red);
+                max[1] = Math.max(max[1], green);
+                max[2] = Math.max(max[2], blue);
             }
+        }
+        minimum = new Point3D(min[0], min[1], min[2]);
+        maximum = new Point3D(max[0], max[1], max[2]);
+        pixelColor = histogram != null ? histogram.toPixelStore() : pixels;
+        clusterNo = new short[pixelColor.size()];
+
+        try {
             pixelCount = width * height;
             //compare recorded pixels and total pixels
-            if ((int) pixelCount != pixelColor.size()) {
+            if ((long) pixelCount != pixelColor.getTotalWeight()) {
                 throw new PixelListSizeException("");
             }
         } catch (PixelListSizeException e) { //recorded pixels and total pixels in image differ
             AppController.addToOutputField(getResBundle().getString("pixelError") + System.lineSeparator() +
                     getResBundle().getString("pixelErrorExpected") + (int) pixelCount + System.lineSeparator() +
-                    getResBundle().getString("pixelErrorActual") + pixelColor.size(), true);
+                    getResBundle().getString("pixelErrorActual") + pixelColor.getTotalWeight(), true);
 
             LOGGER.log(Level.SEVERE, String.format("%s: Expected and actual amount of pixels differ! Expected: %e%nActual: %d%n",
-                    e.getClass().getSimpleName(), pixelCount, pixelColor.size()));
+                    e.getClass().getSimpleName(), pixelCount, pixelColor.getTotalWeight()));
         }
     }
 
+    /**
+     * Creates a {@link ColorData} object for pixels that have already been read, e.g. the pixels of another
+     * {@link ColorData} object converted to a different color space. The pixels are not copied.
+     *
+     * @param pixels The {@link PixelStore} holding the pixels
+     */
+    ColorData(PixelStore pixels) {
+        pixelColor = pixels;
+        clusterNo = new short[pixels.size()];
+        pixelCount = pixels.getTotalWeight();
+    }
+
     /**
      * Scales the passed image to fit the given boundary without losing its aspect ratio
      *
@@ -148,7 +226,7 @@ public class ColorData {
             newHeight = 150;
             newWidth = 150;
         }
-        return convertToBufferedImage(img.getScaledInstance(newWidth, newHeight, Image.SCALE_SMOOTH));
+        return ImageScaler.scale(img, newWidth, newHeight);
     }
 
     /**
@@ -181,7 +259,7 @@ public class ColorData {
      * @param p2 The second {@link Point3D}
      * @return A double - The distance between the two points
      */
-    protected static Double euclideanDistance(Point3D p1, Point3D p2) {
+    protected static double euclideanDistance(Point3D p1, Point3D p2) {
         double x1 = p1.getX();
         double y1 = p1.getY();
         double z1 = p1.getZ();
@@ -194,6 +272,22 @@ public class ColorData {
                         ((z2 - z1) * (z2 - z1)));
     }
 
+    /**
+     * Calculates the Euclidean Distance between a point and a pixel given by its coordinates in a 3D-space
+     *
+     * @param p1 The {@link Point3D}, usually a centroid
+     * @param x2 The x coordinate of the pixel
+     * @param y2 The y coordinate of the pixel
+     * @param z2 The z coordinate of the pixel
+     * @return A double - The distance between the point and the pixel
+     */
+    protected static double euclideanDistance(Point3D p1, double x2, double y2, double z2) {
+        double dx = x2 - p1.getX();
+        double dy = y2 - p1.getY();
+        double dz = z2 - p1.getZ();
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
     /**
      * Creates a new {@link ColorData} object
      *
@@ -201,198 +295,196 @@ public class ColorData {
      * @return A {@link ColorData} object
      */
     public static ColorData createColorData(BufferedImage img) {
-        return new ColorData(img);
+        return new ColorData(img, NO_HISTOGRAM);
     }
 
     /**
-     * ✓ <i>Successfully updates Minimum depending on whether Minimum has already been set or not</i> <br>
-     * Updates the {@link Point3D} object {@link #minimum} with new minimums for x, y and/or z.
-     * <ul>
-     *     <li>
-     *         Gets the {@link Point3D#getX() x}, {@link Point3D#getY() y} and {@link Point3D#getZ() z} values of
-     *         the {@link Point3D point} given to the method
-     *     </li>
-     *     <li>
-     *         If no minimum has been set yet, ({@link #minimum} = <code>(x: -1, y: -1, z: -1)</code>,
-     *         the {@link Point3D point} given to the method will be set as the new {@link #minimum}
-     *     </li>
-     *     <li>
-     *         If {@link #minimum} has been set already, check, if the {@link Point3D point} given to the method
-     *         contains smaller coordinates
-     *     </li>
-     *     <li>
-     *         If the {@link Point3D point} given to the method contains smaller coordinates, update the values of
-     *         {@link #minimum} to the smaller values of the {@link Point3D point} given to the method
-     *     </li>
-     * </ul>
+     * Creates a new {@link ColorData} object, folding the pixels of the image into a {@link ColorHistogram}. <br>
+     * All clustering steps then work on the distinct colors (or grid cells) weighted by their number of pixels,
+     * so their cost no longer depends on the size of the image.
      *
-     * @param p A {@link Point3D} object: Contains the {@link #minimum} for each axis' coordinates
-     **/
-    protected void updateMin(Point3D p) {
-        //get each coordinate of point
-        double x = p.getX();
-        double y = p.getY();
-        double z = p.getZ();
-
-        //if no minimum has been set yet, set the current point as the minimum
-        if (minimum.equals(new Point3D(-1, -1, -1))) {
-            minimum = p;
-        } else { //check for smaller coordinates and update the minimum accordingly
-            double minX = Math.min(x, minimum.getX());
-            double minY = Math.min(y, minimum.getY());
-            double minZ = Math.min(z, minimum.getZ());
-            minimum = new Point3D(minX, minY, minZ);
+     * @param img            The image to be read
+     * @param bitsPerChannel An {@link Integer int} between 1 and {@link ColorHistogram#EXACT_BITS 8}: The number of
+     *                       bits per channel used to tell colors apart, 8 keeps every distinct color
+     * @return A {@link ColorData} object
+     */
+    public static ColorData createHistogramColorData(BufferedImage img, int bitsPerChannel) {
+        if (bitsPerChannel == NO_HISTOGRAM) {
+            throw new IllegalArgumentException("Bits per channel must be between 1 and 8! Actual value: 0");
         }
+        return new ColorData(img, bitsPerChannel);
     }
 
     /**
-     * ✓ <i>Successfully updates Maximum depending on whether Maximum has already been set or not</i> <br>
-     * Updates the {@link Point3D} object {@link #maximum} with new maximums for x, y and/or z.
-     * <ul>
-     *     <li>
-     *         Gets the {@link Point3D#getX() x}, {@link Point3D#getY() y} and {@link Point3D#getZ() z} values of
-     *         the {@link Point3D point} given to the method
-     *     </li>
-     *     <li>
-     *         If no maximum has been set yet, meaning {@link #maximum} is
-     *         <code>(x: 256, y: -256, z: -256</code>, the {@link Point3D point} given to the method
-     *         will be set as the new {@link #maximum}
-     *     </li>
-     *     <li>
-     *         If {@link #maximum} has been set already, check, if the {@link Point3D point} given to the method
-     *         contains larger coordinates
-     *     </li>
-     *     <li>
-     *         If the {@link Point3D point} given to the method contains larger coordinates, update the values of
-     *         {@link #maximum} to the larger values of the {@link Point3D point} given to the method
-     *     </li>
-     * </ul>
+     * Creates a new {@link ColorData} object, streaming the pixels of the image file into a {@link ColorHistogram}
+     * without holding the whole image in memory, see {@link ImageLoader#readHistogram(File, int, long)}. <br>
+     * Meant for images too large to be decoded at once, e.g. scans with hundreds of megapixels.
      *
-     * @param p A {@link Point3D} object: Contains the {@link #maximum} for each axis' coordinates
-     **/
-    protected void updateMax(Point3D p) {
-        //get each coordinate of point
-        double x = p.getX();
-        double y = p.getY();
-        double z = p.getZ();
-
-        //if no maximum has been set yet, set the current point as the maximum
-        if (maximum.equals(new Point3D(256, 256, 256))) {
-            maximum = p;
-        } else { //check for larger coordinates and update the maximum accordingly
-            double maxX = Math.max(x, minimum.getX());
-            double maxY = Math.max(y, minimum.getY());
-            double maxZ = Math.max(z, minimum.getZ());
-            maximum = new Point3D(maxX, maxY, maxZ);
+     * @param file           A {@link File}: The image file to be read
+     * @param bitsPerChannel An {@link Integer int} between 1 and {@link ColorHistogram#EXACT_BITS 8}: The number of
+     *                       bits per channel used to tell colors apart, 8 keeps every distinct color
+     * @param maxPixels      A {@link Long long}: The largest number of pixels decoded at once
+     * @return A {@link ColorData} object
+     * @throws IOException An {@link IOException} - If the file cannot be read or no installed decoder supports it
+     */
+    public static ColorData createHistogramColorData(File file, int bitsPerChannel, long maxPixels)
+            throws IOException {
+        if (bitsPerChannel == NO_HISTOGRAM) {
+            throw new IllegalArgumentException("Bits per channel must be between 1 and 8! Actual value: 0");
+        }
+        ColorHistogram histogram = ImageLoader.readHistogram(file, bitsPerChannel, maxPixels);
+        if (histogram == null) {
+            throw new IOException("No decoder found for the image! Actual value: " + file);
         }
+        return new ColorData(histogram.toPixelStore());
     }
 
     /**
-     * Calculates the average values for x, y and z of all {@link Point3D points} in a cluster. <br>
-     * Iterates through the elements in the {@link LinkedList List} given to the method. <br>
-     * If the current value describing the index of the {@link Point3D point} in that cluster in the
-     * {@link #pixelColor List of all pixels} is within the range of indices possible
-     * (<code>pixelColor.length()</code>), adds the x, y and z values
-     * to the sum of x, y and z values of the other {@link Point3D points} in the cluster. <br>
-     * When the iteration is finished, the average value for x, y and z is calculated by dividing the sum by the
-     * total number of pixels in the cluster. <br>
+     * Recomputes all centroids in a single pass over the {@link #pixelColor pixels}: the x, y and z values of every
+     * pixel are added to the {@link ClusterSums running sums} of the cluster it is assigned to, counted as often as its
+     * {@link PixelStore#getWeight(int) weight}. <br>
+     * Each centroid is then set to the mean of its cluster. A cluster without any pixels keeps its previous centroid.
+     * The same pass yields the Sum of Squared Errors around the recomputed centroids. <br>
+     * The accumulators are kept between the calls, so an iteration doesn't allocate anything per pixel.
      *
-     * @param pointsInCluster List of all {@link Point3D points} in a cluster
-     * @return A {@link Point3D} with the average values for x, y and z of the {@link Point3D points} in a cluster
-     */
-    protected Point3D meanOfAttr(LinkedList<Integer> pointsInCluster) {
-        double meanX = 0.0;
-        double meanY = 0.0;
-        double meanZ = 0.0;
-
-        for (int i : pointsInCluster) {
-            if (i < pixelColor.size()) {
-                meanX += pixelColor.get(i).getPixel().getX();
-                meanY += pixelColor.get(i).getPixel().getY();
-                meanZ += pixelColor.get(i).getPixel().getZ();
-            }
+     * @param totalCentroids Total number of centroids
+     * @return A {@link Double double} - The Sum of Squared Errors around the recomputed centroids
+     */
+    protected double recomputeCentroids(int totalCentroids) {
+        if (clusterSums == null || clusterSums.size() != totalCentroids) {
+            clusterSums = new ClusterSums(totalCentroids);
+        } else {
+            clusterSums.reset();
         }
-        meanX = meanX / pointsInCluster.size();
-        meanY = meanY / pointsInCluster.size();
-        meanZ = meanZ / pointsInCluster.size();
-
-        return new Point3D(meanX, meanY, meanZ);
+        for (int i = 0; i < pixelColor.size(); i++) {
+            clusterSums.add(clusterNo[i], pixelColor.getX(i), pixelColor.getY(i), pixelColor.getZ(i),
+                    pixelColor.getWeight(i));
+        }
+        return clusterSums.updateCentroids(getCentroids());
     }
 
     /**
-     * Recomputes the centroid of a cluster by going through all pixels and adding the pixels with the corresponding
-     * cluster number to a {@link LinkedList} <br>
-     * Then calculates the centroid by getting the mean of all points in that {@link LinkedList List}
+     * Replaces the {@link #centroids} with the colors of a palette and assigns every pixel to its closest color. <br>
+     * If the palette has fewer colors than requested, e.g. because the image has fewer distinct colors, its colors
+     * are repeated until the requested number is reached.
      *
-     * @param clusterNr The number of the current cluster
-     * @return A {@link Point3D} - The recomputed centroid for that cluster
+     * @param palette     The {@link List} of colors determined by a {@link PaletteExtractor}, at least one
+     * @param totalColors The number of colors requested
      */
-    protected Point3D calculateCentroid(int clusterNr) {
-        Point3D centroid;
-        LinkedList<Integer> pointsInCluster = new LinkedList<>();
+    protected void setPalette(List<Point3D> palette, int totalColors) {
+        centroids.clear();
+        for (int i = 0; i < totalColors; i++) {
+            centroids.add(palette.get(i % palette.size()));
+        }
+        KMeans.assignToNearestCentroid(this, totalColors);
+    }
 
+    /**
+     * Generates a random index between 0 and the total pixels stored in {@link #pixelColor} <br>
+     * If the {@link #pixelColor pixels} are {@link PixelStore#isWeighted() weighted}, each index is chosen with a
+     * probability proportional to its weight, as if a random pixel of the image had been picked.
+     *
+     * @return An {@link Integer} - A value pointing to a random element in {@link #pixelColor}
+     */
+    protected int randomIndexFromPoint3DList() {
+        if (!pixelColor.isWeighted()) {
+            return random.nextInt(pixelColor.size());
+        }
+        double threshold = randomInRange(0, pixelColor.getTotalWeight());
+        double currentSum = 0.0;
         for (int i = 0; i < pixelColor.size(); i++) {
-            Pixels pixel = pixelColor.get(i);
-            if (pixel.clusterNo == clusterNr) {
-                pointsInCluster.add(i);
+            currentSum += pixelColor.getWeight(i);
+            if (currentSum > threshold) {
+                return i;
             }
         }
-        centroid = meanOfAttr(pointsInCluster);
-        return centroid;
+        return pixelColor.size() - 1;
     }
 
     /**
-     * Recomputes all centroids by using the {@link #calculateCentroid(int) calculateCentroid()} method <br>
-     * Adds the recomputed centroid to the {@link LinkedList} {@link #centroids}
+     * Gets the {@link Random} instance used to generate random values
      *
-     * @param totalCentroids Total number of centroids
+     * @return A {@link Random} - The instance used to generate random values
      */
-    protected void recomputeCentroids(int totalCentroids) {
-        for (int i = 0; i < totalCentroids; i++) {
-            getCentroids().set(i, calculateCentroid(i));
-        }
+    protected Random getRandom() {
+        return random;
     }
 
     /**
-     * Generates a random index between 0 and the total pixels stored in {@link #pixelColor}
+     * Replaces the {@link Random} instance with one starting from the passed seed, so that every random value drawn
+     * while clustering, and with it the resulting palette, is the same for the same seed
      *
-     * @return An {@link Integer} - A value pointing to a random element in {@link #pixelColor}
+     * @param seed A {@link Long long}: The seed
      */
-    protected int randomIndexFromPoint3DList() {
-        return random.nextInt(pixelColor.size());
+    void setSeed(long seed) {
+        random = new Random(seed);
     }
 
     /**
-     * Calculates the sum of distances of every pixel from its nearest centroid
+     * Copies the centroids and the cluster of every pixel from another instance holding the same pixels, e.g. the
+     * best of several runs clustered on their own
      *
-     * @param centroid  The {@link Point3D} centroid of the observed cluster
-     * @param clusterNo The number of the observed cluster
-     * @return A {@link Double} - The squared distance of each pixel in the cluster from its centroid
+     * @param other A {@link ColorData} object: The instance holding the result of a run on the same pixels
      */
-    private Double calculateClusterSumSquaredDistance(Point3D centroid, int clusterNo) {
-        double sumSquaredDistance = 0.0;
+    void copyClustering(ColorData other) {
+        centroids.clear();
+        centroids.addAll(other.getCentroids());
+        System.arraycopy(other.clusterNo, 0, clusterNo, 0, clusterNo.length);
+    }
 
-        for (Pixels pixels : pixelColor) {
-            if (pixels.clusterNo == clusterNo) {
-                sumSquaredDistance += Math.pow(euclideanDistance(centroid, pixels.getPixel()), 2);
-            }
+    /**
+     * Replaces the centroids with the passed palette and moves every pixel to the color its original cluster is mapped
+     * to, e.g. when a {@link PaletteHierarchy} merges clusters
+     *
+     * @param palette           The {@link List} of colors of the new palette
+     * @param originalClusterNo The original cluster of every pixel
+     * @param clusterMap        The index of the color in the palette for every original cluster
+     */
+    void mapClusters(List<Point3D> palette, short[] originalClusterNo, int[] clusterMap) {
+        centroids.clear();
+        centroids.addAll(palette);
+        for (int i = 0; i < clusterNo.length; i++) {
+            clusterNo[i] = (short) clusterMap[originalClusterNo[i]];
         }
-        return sumSquaredDistance;
     }
 
     /**
-     * Calculates the sum of distances of every pixel from its nearest centroid for each cluster by using
-     * {@link #calculateClusterSumSquaredDistance(Point3D, int) calculateClusterSumSquaredDistance()}
+     * Compares the cluster of every pixel to the cluster it was assigned to before and stores the current clusters for
+     * the next comparison
      *
-     * @param centroids The {@link LinkedList} containing the centroids
-     * @return A {@link Double} - The squared distance of each pixel in all clusters from its centroid
+     * @param previousClusterNo The cluster of every pixel after the previous iteration, overwritten with the current
+     *                          clusters
+     * @return A {@link Double double} - The share of the pixels of the image that changed their cluster, counted as
+     * often as their {@link PixelStore#getWeight(int) weight}
      */
-    protected Double calculateTotalSumSquaredDistances(List<Point3D> centroids) {
+    protected double updateChangedShare(short[] previousClusterNo) {
+        long changed = 0;
+        for (int i = 0; i < clusterNo.length; i++) {
+            if (clusterNo[i] != previousClusterNo[i]) {
+                changed += pixelColor.getWeight(i);
+                previousClusterNo[i] = clusterNo[i];
+            }
+        }
+        return (double) changed / pixelColor.getTotalWeight();
+    }
 
-        Double sumSquaredError = 0.0;
+    /**
+     * Calculates the sum of the squared distances of every pixel from the centroid of the cluster it is assigned to,
+     * in a single pass over the {@link #pixelColor pixels}
+     *
+     * @param centroids The {@link List} containing the centroids
+     * @return A {@link Double double} - The squared distance of each pixel in all clusters from its centroid
+     */
+    protected double calculateTotalSumSquaredDistances(List<Point3D> centroids) {
+        double[] coordinates = KMeans.toArray(centroids);
+        double sumSquaredError = 0.0;
 
-        for (int i = 0; i < centroids.size(); i++) {
-            sumSquaredError += calculateClusterSumSquaredDistance(centroids.get(i), i);
+        for (int i = 0; i < pixelColor.size(); i++) {
+            int cluster = clusterNo[i];
+            double dx = pixelColor.getX(i) - coordinates[cluster * 3];
+            double dy = pixelColor.getY(i) - coordinates[cluster * 3 + 1];
+            double dz = pixelColor.getZ(i) - coordinates[cluster * 3 + 2];
+            sumSquaredError += (dx * dx + dy * dy + dz * dz) * pixelColor.getWeight(i);
         }
         return sumSquaredError;
     }
@@ -400,7 +492,8 @@ public class ColorData {
     /**
      * ✓ <i>Successfully calculates centroids as far away from each other as possible</i> <br>
      * Calculates a weighted centroid based on roulette-wheel selection
-     * with the fitness being the distance of a pixel to its nearest centroid
+     * with the fitness being the distance of a pixel to its nearest centroid, multiplied by the pixel's
+     * {@link PixelStore#getWeight(int) weight}
      * <ol>
      *     <li>
      *         Sets the sum of the total fitness of all pixels to 0
@@ -423,18 +516,23 @@ public class ColorData {
      *     </li>
      * </ol>
      *
+     * If every pixel already is a centroid, e.g. because a {@link ColorHistogram histogram} of a logo has fewer
+     * distinct colors than requested, the existing centroids are repeated in turn, like {@link #setPalette(List, int)}
+     * pads a palette. The repeated centroids keep no pixels and stay where they are.
+     *
      * @return A {@link Point3D} - The point selected as a centroid <b>OR</b>
-     * <code >(x: -1, y: -1, z: -1)</code> if an error occurred and no centroid could be calculated
+     * <code >(x: -1, y: -1, z: -1)</code> if the image has no pixels and no centroid could be calculated
      */
     protected Point3D calculateWeighedCentroid() {
+        updateClosestCentroids();
 
         //Total sum of fitness
         double totalSum = 0.0;
 
         //Calculate the total sum of fitness: Only pixels that are not centroids will be added to the sum
         for (int currentPxIndex = (pixelColor.size() - 1); currentPxIndex >= 0; currentPxIndex--) {
-            if (!indicesOfCentroids.contains(currentPxIndex)) {
-                totalSum += fitness(currentPxIndex);
+            if (!isCentroid[currentPxIndex]) {
+                totalSum += fitness(currentPxIndex) * pixelColor.getWeight(currentPxIndex);
             }
         }
 
@@ -446,22 +544,95 @@ public class ColorData {
 
         //Select pixel based on chance and fitness: Only pixels that are not centroids may be selected
         for (int currentPxIndex = (pixelColor.size() - 1); currentPxIndex >= 0; currentPxIndex--) {
-            if (!indicesOfCentroids.contains(currentPxIndex)) {
+            if (!isCentroid[currentPxIndex]) {
 
                 //Add fitness of the currently selected element to the partial sum of previous elements fitness
-                currentSum += fitness(currentPxIndex);
+                currentSum += fitness(currentPxIndex) * pixelColor.getWeight(currentPxIndex);
 
                 //Check, if the sum added fitness of the current element exceeds the threshold
                 //and return the pixel if it does
                 if (currentSum >= threshold) {
                     indicesOfCentroids.add(currentPxIndex);
-                    return pixelColor.get(currentPxIndex).getPixel();
+                    return getPixel(currentPxIndex);
                 }
             }
         }
+
+        //No pixel is left that isn't a centroid yet: repeat the distinct centroids in turn
+        int distinctCentroids = seedCentroids.size() + indicesOfCentroids.size();
+        if (distinctCentroids > 0) {
+            return centroids.get(centroids.size() % distinctCentroids);
+        }
         return new Point3D(-1, -1, -1);
     }
 
+    /**
+     * Removes all centroids and starts over from the passed ones, before the starting centroids of a new run are
+     * picked. {@link #calculateWeighedCentroid()} then picks further centroids far away from the passed ones.
+     *
+     * @param initialCentroids The {@link List} of centroids to start from, e.g. the palette of an earlier run, or an
+     *                         empty list to start without any centroid
+     */
+    void startFrom(List<Point3D> initialCentroids) {
+        centroids.clear();
+        centroids.addAll(initialCentroids);
+        seedCentroids.clear();
+        seedCentroids.addAll(initialCentroids);
+        indicesOfCentroids.clear();
+        closestSquaredDistance = null;
+    }
+
+    /**
+     * Compares every pixel to the centroids added to {@link #indicesOfCentroids} since the last call and updates
+     * {@link #closestSquaredDistance} and {@link #isCentroid}. <br>
+     * The centroids are only ever appended while the starting centroids are picked, so each pixel is compared to each
+     * centroid once instead of once per centroid picked. If the list got shorter, everything is calculated again,
+     * starting with the {@link #seedCentroids}.
+     */
+    private void updateClosestCentroids() {
+        float[] xs = pixelColor.xs();
+        float[] ys = pixelColor.ys();
+        float[] zs = pixelColor.zs();
+        if (closestSquaredDistance == null || closestCentroidsCount > indicesOfCentroids.size()) {
+            closestSquaredDistance = new double[pixelColor.size()];
+            Arrays.fill(closestSquaredDistance, Double.MAX_VALUE);
+            isCentroid = new boolean[pixelColor.size()];
+            closestCentroidsCount = 0;
+            for (Point3D seed : seedCentroids) {
+                updateClosestSquaredDistances(seed.getX(), seed.getY(), seed.getZ());
+            }
+        }
+        ListIterator<Integer> newCentroids = indicesOfCentroids.listIterator(closestCentroidsCount);
+        while (newCentroids.hasNext()) {
+            int centroid = newCentroids.next();
+            isCentroid[centroid] = true;
+            updateClosestSquaredDistances(xs[centroid], ys[centroid], zs[centroid]);
+        }
+        closestCentroidsCount = indicesOfCentroids.size();
+    }
+
+    /**
+     * Lowers the {@link #closestSquaredDistance} of every pixel that is closer to the passed centroid
+     *
+     * @param cx The x coordinate of the centroid
+     * @param cy The y coordinate of the centroid
+     * @param cz The z coordinate of the centroid
+     */
+    private void updateClosestSquaredDistances(double cx, double cy, double cz) {
+        float[] xs = pixelColor.xs();
+        float[] ys = pixelColor.ys();
+        float[] zs = pixelColor.zs();
+        for (int p = 0; p < pixelColor.size(); p++) {
+            double dx = xs[p] - cx;
+            double dy = ys[p] - cy;
+            double dz = zs[p] - cz;
+            double dist = dx * dx + dy * dy + dz * dz;
+            if (dist < closestSquaredDistance[p]) {
+                closestSquaredDistance[p] = dist;
+            }
+        }
+    }
+
     private double randomInRange(double min, double max) {
         double range = max - min;
         double scaled = random.nextDouble() * range;
@@ -470,31 +641,22 @@ public class ColorData {
 
     /**
      * ✓ <i>Successfully calculates a pixels fitness to be a centroid</i> <br>
-     * Calculates a pixel's fitness for being selected as a centroid by calculating its distance to the nearest
+     * Calculates a pixel's fitness for being selected as a centroid, which is its distance to the nearest
      * centroid. <br>
      * <b>Used in:</b> {@link #calculateWeighedCentroid()} <br>
      * <b>To:</b> Calculate the fitness of a pixel when determining a weighted centroid <br>
      * <ol>
      *     <li>
-     *         Set the value for the fitness (equal to the distance to the closest centroid) to the highest value
-     *         possible
-     *     </li>
-     *     <li>
      *         Checks, if centroids have been determined yet
      *     </li>
      *     <li>
-     *         If no centroids have been set, set the pixels value to the maximum
-     *     </li>
-     *     <li>
-     *         Iterate through all centroids and calculate the distance of the current pixel to the current centroid
-     *     </li>
-     *     <li>
-     *         If the value of the distance of the current centroid the current pixel is less than the current fitness,
-     *         set the fitness to the distance between current centroid and pixel
+     *         If no centroids have been set, returns the highest value possible
      *     </li>
      *     <li>
-     *         After determining the fitness, by finding the closest centroid, return the distance to the closest
-     *         centroid as the value of the fitness of that pixel
+     *         Otherwise, returns the square root of the squared distance to the closest centroid, which
+     *         {@link #updateClosestCentroids()} keeps up to date. As the square root keeps the order of the distances,
+     *         this is the same as the smallest {@link #euclideanDistance(Point3D, double, double, double) distance}
+     *         to any centroid.
      *     </li>
      * </ol>
      *
@@ -502,34 +664,52 @@ public class ColorData {
      * @return A {@link Double} - The pixel's fitness for being selected as a centroid
      */
     private double fitness(int pixelNr) {
-        double distClosestCentroid = Double.MAX_VALUE;
-
         //if no centroids have been set yet, return the highest number
         //(no centroids = no closest centroid to be found)
-        if (indicesOfCentroids.isEmpty()) {
-            return distClosestCentroid;
+        if (indicesOfCentroids.isEmpty() && seedCentroids.isEmpty()) {
+            return Double.MAX_VALUE;
         }
-        //iterate through all centroids to find centroid closest to current pixel
-        for (int centroid : indicesOfCentroids) {
+        return Math.sqrt(closestSquaredDistance[pixelNr]);
+    }
 
-            //calculate distance between pixel and current centroid
-            double dist = euclideanDistance(pixelColor.get(pixelNr).getPixel(), pixelColor.get(centroid).getPixel());
+    /**
+     * Gets the {@link PixelStore} {@link #pixelColor}
+     *
+     * @return A {@link PixelStore} containing all recorded pixels
+     */
+    protected PixelStore getPixels() {
+        return pixelColor;
+    }
 
-            //closer centroid found
-            if (dist < distClosestCentroid) {
-                distClosestCentroid = dist;
-            }
-        }
-        return distClosestCentroid;
+    /**
+     * Creates a {@link Point3D} from the color of the pixel at the passed index, with red as the x, green as the y and
+     * blue as the z coordinate
+     *
+     * @param index The index of the pixel in {@link #pixelColor}
+     * @return A {@link Point3D} - The pixel's color
+     */
+    protected Point3D getPixel(int index) {
+        return new Point3D(pixelColor.getX(index), pixelColor.getY(index), pixelColor.getZ(index));
     }
 
     /**
-     * Gets the {@link LinkedList} {@link #pixelColor}
+     * Gets the number of the cluster the pixel at the passed index is assigned to
      *
-     * @return A {@link LinkedList} containing all recorded pixels
+     * @param index The index of the pixel in {@link #pixelColor}
+     * @return An {@link Integer int} - The number of the pixel's cluster
      */
-    protected LinkedList<Pixels> getPixels() {
-        return pixelColor;
+    protected int getClusterNo(int index) {
+        return clusterNo[index];
+    }
+
+    /**
+     * Assigns the pixel at the passed index to a cluster
+     *
+     * @param index        The index of the pixel in {@link #pixelColor}
+     * @param newClusterNr The number of the cluster the pixel is assigned to
+     */
+    protected void setClusterNo(int index, int newClusterNr) {
+        clusterNo[index] = (short) newClusterNr;
     }
 
     /**
@@ -542,77 +722,14 @@ public class ColorData {
     }
 
     /**
-     * Gets the {@link LinkedList} {@link #centroids}
+     * Gets the {@link List} {@link #centroids}
      *
-     * @return A {@link LinkedList} containing all centroids
+     * @return A {@link List} containing all centroids
      */
     public List<Point3D> getCentroids() {
         return centroids;
     }
 
-    /**
-     * An inner class, storing:
-     * <ul>
-     *     <li>
-     *         {@link Point3D} - A pixel with its rgb colors as the x, y and z value
-     *     </li>
-     *     <li>
-     *         {@link Integer} - The number of the pixels cluster
-     *     </li>
-     * </ul>
-     * That class also contains:
-     * <ul>
-     *     <li>
-     *         An alternate constructor invocation to set a pixel
-     *     </li>
-     *     <li>
-     *         A setter for the {@link Pixels#clusterNo cluster number}
-     *     </li>
-     *     <li>
-     *         A getter for the {@link Point3D} {@link Pixels#pixel pixel}
-     *     </li>
-     * </ul>
-     */
-    public static class Pixels {
-        /**
-         * {@link Point3D} storing a pixel's color with {@link Color#getRed() red} as the {@link Point3D#getX() x},
-         * {@link Color#getGreen() green} as the {@link Point3D#getY() y}
-         * and {@link Color#getBlue() blue} as the {@link Point3D#getZ() z} coordinates
-         */
-        protected Point3D pixel;
-
-        /**
-         * Number of the cluster a pixel is assigned to
-         */
-        protected Integer clusterNo;
-
-        /**
-         * Alternate constructor invocation for the {@link Pixels Pixels} class
-         *
-         * @param pixel - A {@link Point3D}: Stores red value as x, blue as y and green as z coordinates
-         **/
-        protected Pixels(Point3D pixel) {
-            this.pixel = pixel;
-        }
-
-        /**
-         * Setter for the Integer {@link #clusterNo}
-         *
-         * @param newClusterNr An {@link Integer}: Sets {@link #clusterNo} to its value
-         **/
-        protected void setClusterNo(Integer newClusterNr) {
-            this.clusterNo = newClusterNr;
-        }
-
-        /**
-         * Getter for the {@link Point3D} object {@link #pixel}
-         * @return A {@link Point3D} - The pixel's color
-         **/
-        protected Point3D getPixel() {
-            return pixel;
-        }
-    }
-
     /**
      * Custom Exception for when expected and actual amount of pixels differ
      */
@@ -0,0 +1,253 @@
+package de.colorscheme.clustering;
+
+import java.util.Arrays;
+
+/**
+ * Folds the pixels of an image into a histogram of colors, counting how often each color occurs. <br>
+ * Photos reuse the same colors over and over, so clustering the distinct colors together with their counts gives the
+ * same result as clustering every single pixel while only doing a fraction of the work.
+ * <ul>
+ *     <li>
+ *         With {@link #EXACT_BITS 8 bits} per channel every distinct 24-bit color gets its own bin.
+ *     </li>
+ *     <li>
+ *         With fewer bits per channel the color cube is divided into a grid, e.g. 5 bits per channel give
+ *         32 x 32 x 32 bins. Each bin stands for the mean color of all pixels that fell into it.
+ *     </li>
+ * </ul>
+ * The bins are kept in a primitive open-addressing hash map and can be turned into a
+ * {@link PixelStore#isWeighted() weighted} {@link PixelStore} via {@link #toPixelStore()}.
+ *
+ * @author &copy; 2024 Elisa Johanna Woelk | elisa-johanna.woelk@outlook.de | @fenris_22127
+ * @version 1.0
+ * @since 18.0.1
+ */
+public class ColorHistogram {
+
+    /**
+     * The number of bits per channel at which every distinct 24-bit color gets its own bin
+     */
+    public static final int EXACT_BITS = 8;
+
+    /**
+     * The key marking an unused slot in {@link #keys}. Keys are at most 24 bits long, so -1 never is a valid key.
+     */
+    private static final int EMPTY = -1;
+
+    /**
+     * The number of slots the map is created with
+     */
+    private static final int INITIAL_CAPACITY = 4096;
+
+    /**
+     * The number of bits per channel used to build the bin's key
+     */
+    private final int bits;
+    /**
+     * The number of bits each channel is shifted to the right to get its part of the key
+     */
+    private final int shift;
+    /**
+     * The key of the bin stored in each slot, or {@link #EMPTY}
+     */
+    private int[] keys;
+    /**
+     * The number of pixels in each slot's bin
+     */
+    private int[] counts;
+    /**
+     * The sum of the red values of all pixels in each slot's bin, only used if the bins are not
+     * {@link #EXACT_BITS exact}
+     */
+    private long[] sumRed;
+    /**
+     * The sum of the green values of all pixels in each slot's bin, only used if the bins are not
+     * {@link #EXACT_BITS exact}
+     */
+    private long[] sumGreen;
+    /**
+     * The sum of the blue values of all pixels in each slot's bin, only used if the bins are not
+     * {@link #EXACT_BITS exact}
+     */
+    private long[] sumBlue;
+    /**
+     * The number of bits the hashed key is shifted to the right to get a slot index, {@code 32 - log2(capacity)}
+     */
+    private int hashShift;
+    /**
+     * The number of bins in use
+     */
+    private int size = 0;
+    /**
+     * The number of pixels added to the histogram
+     */
+    private long totalCount = 0;
+
+    /**
+     * Creates an empty histogram
+     *
+     * @param bitsPerChannel An {@link Integer int} between 1 and {@link #EXACT_BITS 8}: The number of bits of each
+     *                       channel that are used to tell colors apart
+     */
+    public ColorHistogram(int bitsPerChannel) {
+        if (bitsPerChannel < 1 || bitsPerChannel > EXACT_BITS) {
+            throw new IllegalArgumentException("Bits per channel must be between 1 and 8! Actual value: "
+                    + bitsPerChannel);
+        }
+        this.bits = bitsPerChannel;
+        this.shift = EXACT_BITS - bitsPerChannel;
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Creates new, empty arrays for the passed number of slots
+     *
+     * @param capacity The number of slots, must be a power of two
+     */
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        hashShift = Integer.numberOfLeadingZeros(capacity) + 1;
+        counts = new int[capacity];
+        if (isGrid()) {
+            sumRed = new long[capacity];
+            sumGreen = new long[capacity];
+            sumBlue = new long[capacity];
+        }
+    }
+
+    /**
+     * Returns whether the bins are cells of a grid rather than exact colors
+     *
+     * @return A {@link Boolean boolean}: Whether the histogram uses fewer than {@link #EXACT_BITS 8} bits per channel
+     */
+    private boolean isGrid() {
+        return bits < EXACT_BITS;
+    }
+
+    /**
+     * Adds one pixel to the histogram
+     *
+     * @param rgb The pixel's color as returned by {@link java.awt.image.BufferedImage#getRGB(int, int) getRGB()}. The
+     *            alpha channel is ignored.
+     */
+    public void add(int rgb) {
+        add(rgb, 1);
+    }
+
+    /**
+     * Adds a number of pixels of the same color to the histogram
+     *
+     * @param rgb   The pixels' color as returned by {@link java.awt.image.BufferedImage#getRGB(int, int) getRGB()}.
+     *              The alpha channel is ignored.
+     * @param count The number of pixels of that color
+     */
+    public void add(int rgb, int count) {
+        int red = (rgb >> 16) & 0xFF;
+        int green = (rgb >> 8) & 0xFF;
+        int blue = rgb & 0xFF;
+        int key = ((red >> shift) << (2 * bits)) | ((green >> shift) << bits) | (blue >> shift);
+
+        int slot = slotOf(key);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            size++;
+        }
+        counts[slot] += count;
+        if (isGrid()) {
+            sumRed[slot] += (long) red * count;
+            sumGreen[slot] += (long) green * count;
+            sumBlue[slot] += (long) blue * count;
+        }
+        totalCount += count;
+
+        //keep the load factor below 0.5 so probe sequences stay short
+        if (size * 2 > keys.length) {
+            rehash();
+        }
+    }
+
+    /**
+     * Finds the slot containing the passed key, or the empty slot where it has to be inserted, by linear probing. <br>
+     * Neighbouring colors have neighbouring keys, so the key is spread over all slots by Fibonacci hashing.
+     *
+     * @param key The key of the bin
+     * @return An {@link Integer int}: The index of the slot
+     */
+    private int slotOf(int key) {
+        int mask = keys.length - 1;
+        int slot = (key * 0x9E3779B9) >>> hashShift;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Doubles the number of slots and reinserts all bins
+     */
+    private void rehash() {
+        int[] oldKeys = keys;
+        int[] oldCounts = counts;
+        long[] oldRed = sumRed;
+        long[] oldGreen = sumGreen;
+        long[] oldBlue = sumBlue;
+
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+                if (isGrid()) {
+                    sumRed[slot] = oldRed[i];
+                    sumGreen[slot] = oldGreen[i];
+                    sumBlue[slot] = oldBlue[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of bins in use, i.e. the number of distinct colors or occupied grid cells
+     *
+     * @return An {@link Integer int}: The number of bins
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of pixels added to the histogram
+     *
+     * @return A {@link Long long}: The number of pixels
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Creates a {@link PixelStore#isWeighted() weighted} {@link PixelStore} with one entry per bin. <br>
+     * The entry's color is the exact color for {@link #EXACT_BITS exact} bins, or the mean color of all pixels in the
+     * bin for grid cells. The entry's weight is the number of pixels in the bin.
+     *
+     * @return A {@link PixelStore} - The bins of the histogram
+     */
+    public PixelStore toPixelStore() {
+        PixelStore store = new PixelStore(size, true);
+        for (int slot = 0; slot < keys.length; slot++) {
+            int key = keys[slot];
+            if (key == EMPTY) {
+                continue;
+            }
+            int count = counts[slot];
+            if (isGrid()) {
+                store.add((float) sumRed[slot] / count, (float) sumGreen[slot] / count, (float) sumBlue[slot] / count,
+                        count);
+            } else {
+                store.add((key >> 16) & 0xFF, (key >> 8) & 0xFF, key & 0xFF, count);
+            }
+        }
+        return store;
+    }
+}
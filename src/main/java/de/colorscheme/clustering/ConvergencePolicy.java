@@ -0,0 +1,29 @@
+package de.colorscheme.clustering;
+
+/**
+ * Decides after every iteration of {@link KMeans#kMeans(ColorData, int, KMeansConfig)} whether the run ends. <br>
+ * {@link KMeansConvergence} combines a relative tolerance, a share of changed pixels, an iteration cap and a time
+ * budget. Other criteria can be plugged in with {@link KMeansConfig#withConvergence(ConvergencePolicy)}.
+ *
+ * @author &copy; 2024 Elisa Johanna Woelk | elisa-johanna.woelk@outlook.de | @fenris_22127
+ * @version 1.0
+ * @since 18.0.1
+ */
+public interface ConvergencePolicy {
+
+    /**
+     * Checks whether the run ends after the latest iteration
+     *
+     * @param iterations               An {@link Integer int}: The number of iterations run so far, at least 1
+     * @param previousSumSquaredErrors A {@link Double double}: The Sum of Squared Errors after the previous iteration,
+     *                                 {@link Double#NaN NaN} after the first iteration or if the engine doesn't know it
+     * @param sumSquaredErrors         A {@link Double double}: The Sum of Squared Errors after the latest iteration
+     * @param changedShare             A {@link Double double} between 0 and 1: The share of the pixels of the image
+     *                                 that changed their cluster in the latest iteration, {@link Double#NaN NaN} if the
+     *                                 engine doesn't know it
+     * @param elapsedMillis            A {@link Long long}: The milliseconds passed since the run started
+     * @return A {@link KMeansStopReason} - The criterion that ends the run, or {@code null} if the run continues
+     */
+    KMeansStopReason check(int iterations, double previousSumSquaredErrors, double sumSquaredErrors,
+                           double changedShare, long elapsedMillis);
+}
@@ -0,0 +1,192 @@
+package de.colorscheme.clustering;
+
+/**
+ * The {@link KMeansMode#GRID grid} engine for the KMeans clustering process. <br>
+ * Before the first iteration, the box around all pixels is divided into {@link #GRID_SIZE}³ cells and every pixel is
+ * sorted into its cell once. After every update of the centroids, the {@link CandidateFilter} lists the few centroids
+ * that can be the nearest one for any pixel of each cell, so assigning a pixel only takes a lookup of its cell and a
+ * comparison against these candidates instead of all centroids. Pixels of a cell with a single candidate are assigned
+ * without computing a distance at all, so an iteration hardly gets slower with more centroids. <br>
+ * The grid spans the colors that actually occur rather than the whole RGB cube, so it works the same way for
+ * {@link ClusteringColorSpace#LAB}. Every pixel ends up in the same cluster as with {@link KMeansMode#SEQUENTIAL}, so
+ * both engines return exactly the same palette.
+ *
+ * @author &copy; 2024 Elisa Johanna Woelk | elisa-johanna.woelk@outlook.de | @fenris_22127
+ * @version 1.0
+ * @since 18.0.1
+ */
+final class GridKMeans implements KMeansStep {
+
+    /**
+     * The number of cells along each channel
+     */
+    private static final int GRID_SIZE = 16;
+    /**
+     * The number of cells of the grid
+     */
+    private static final int TOTAL_CELLS = GRID_SIZE * GRID_SIZE * GRID_SIZE;
+
+    /**
+     * The cell of each pixel
+     */
+    private short[] cellOf;
+    /**
+     * The boxes around the pixels of each cell, six values per cell as described in {@link CandidateFilter}
+     */
+    private float[] bounds;
+    /**
+     * The cells containing at least one pixel
+     */
+    private int[] occupied;
+    /**
+     * The candidates of every cell, {@code totalCentroids} entries reserved per cell
+     */
+    private int[] candidates;
+    /**
+     * The number of candidates of every cell
+     */
+    private final int[] totalCandidates = new int[TOTAL_CELLS];
+    /**
+     * The numbers of all centroids, in ascending order
+     */
+    private int[] allCentroids;
+    /**
+     * The number of distances between a pixel and a centroid skipped in the last iteration
+     */
+    private long skipped = 0;
+
+    @Override
+    public double iterate(ColorData colorData, int totalCentroids) {
+        PixelStore pixels = colorData.getPixels();
+        if (cellOf == null) {
+            buildGrid(pixels);
+        }
+        double[] centroids = KMeans.toArray(colorData.getCentroids());
+        updateCandidates(centroids, totalCentroids);
+
+        long computed = 0;
+        float[] xs = pixels.xs();
+        float[] ys = pixels.ys();
+        float[] zs = pixels.zs();
+        for (int p = 0; p < pixels.size(); p++) {
+            int cell = cellOf[p];
+            int count = totalCandidates[cell];
+            if (count == 1) {
+                colorData.setClusterNo(p, candidates[cell * totalCentroids]);
+            } else {
+                colorData.setClusterNo(p, nearest(centroids, cell * totalCentroids, count, xs[p], ys[p], zs[p]));
+                computed += count;
+            }
+        }
+        skipped = (long) pixels.size() * totalCentroids - computed;
+
+        return colorData.recomputeCentroids(totalCentroids);
+    }
+
+    @Override
+    public long getSkippedDistances() {
+        return skipped;
+    }
+
+    /**
+     * Lists the candidates of every occupied cell for the passed centroids
+     *
+     * @param centroids      The x, y and z coordinates of all centroids, one after another
+     * @param totalCentroids The number of centroids
+     */
+    private void updateCandidates(double[] centroids, int totalCentroids) {
+        if (allCentroids == null || allCentroids.length != totalCentroids) {
+            allCentroids = new int[totalCentroids];
+            for (int i = 0; i < totalCentroids; i++) {
+                allCentroids[i] = i;
+            }
+            candidates = new int[TOTAL_CELLS * totalCentroids];
+        }
+        int[] kept = new int[totalCentroids];
+        for (int cell : occupied) {
+            int count = CandidateFilter.filter(centroids, allCentroids, totalCentroids, bounds, cell, kept);
+            System.arraycopy(kept, 0, candidates, cell * totalCentroids, count);
+            totalCandidates[cell] = count;
+        }
+    }
+
+    /**
+     * Finds the nearest of the candidates of a cell to a pixel, like
+     * {@link CandidateFilter#nearest(double[], int[], int, double, double, double)} without copying the candidates
+     *
+     * @param centroids The x, y and z coordinates of all centroids, one after another
+     * @param offset    The index of the first candidate of the cell in {@link #candidates}
+     * @param count     The number of candidates of the cell
+     * @param x         The x coordinate of the pixel
+     * @param y         The y coordinate of the pixel
+     * @param z         The z coordinate of the pixel
+     * @return An {@link Integer int} - The number of the nearest candidate
+     */
+    private int nearest(double[] centroids, int offset, int count, double x, double y, double z) {
+        int nearest = candidates[offset];
+        double minDist = Double.MAX_VALUE;
+        for (int c = offset; c < offset + count; c++) {
+            double dist = CandidateFilter.squaredDistance(centroids, candidates[c], x, y, z);
+            if (dist < minDist) {
+                minDist = dist;
+                nearest = candidates[c];
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Sorts every pixel into its cell and computes the box around the pixels of each cell
+     *
+     * @param pixels The pixels of the image
+     */
+    private void buildGrid(PixelStore pixels) {
+        float[][] channels = {pixels.xs(), pixels.ys(), pixels.zs()};
+        double[] min = new double[3];
+        double[] scale = new double[3];
+        for (int d = 0; d < 3; d++) {
+            float low = Float.MAX_VALUE;
+            float high = -Float.MAX_VALUE;
+            for (int p = 0; p < pixels.size(); p++) {
+                low = Math.min(low, channels[d][p]);
+                high = Math.max(high, channels[d][p]);
+            }
+            min[d] = low;
+            scale[d] = high > low ? GRID_SIZE / ((double) high - low) : 0;
+        }
+
+        cellOf = new short[pixels.size()];
+        bounds = new float[TOTAL_CELLS * 6];
+        for (int cell = 0; cell < TOTAL_CELLS; cell++) {
+            for (int d = 0; d < 3; d++) {
+                bounds[cell * 6 + d] = Float.MAX_VALUE;
+                bounds[cell * 6 + 3 + d] = -Float.MAX_VALUE;
+            }
+        }
+        int totalOccupied = 0;
+        boolean[] isOccupied = new boolean[TOTAL_CELLS];
+        for (int p = 0; p < pixels.size(); p++) {
+            int cell = 0;
+            for (int d = 0; d < 3; d++) {
+                cell = cell * GRID_SIZE + Math.min(GRID_SIZE - 1, (int) ((channels[d][p] - min[d]) * scale[d]));
+            }
+            cellOf[p] = (short) cell;
+            for (int d = 0; d < 3; d++) {
+                bounds[cell * 6 + d] = Math.min(bounds[cell * 6 + d], channels[d][p]);
+                bounds[cell * 6 + 3 + d] = Math.max(bounds[cell * 6 + 3 + d], channels[d][p]);
+            }
+            if (!isOccupied[cell]) {
+                isOccupied[cell] = true;
+                totalOccupied++;
+            }
+        }
+
+        occupied = new int[totalOccupied];
+        int next = 0;
+        for (int cell = 0; cell < TOTAL_CELLS; cell++) {
+            if (isOccupied[cell]) {
+                occupied[next++] = cell;
+            }
+        }
+    }
+}
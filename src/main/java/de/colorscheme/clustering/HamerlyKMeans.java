@@ -0,0 +1,200 @@
+package de.colorscheme.clustering;
+
+/**
+ * The {@link KMeansMode#HAMERLY Hamerly} engine for the KMeans clustering process, which uses the triangle inequality
+ * to skip distance computations that cannot change a pixel's cluster. <br>
+ * For every pixel it keeps
+ * <ul>
+ *     <li>
+ *         an upper bound of the distance to the centroid of its own cluster and
+ *     </li>
+ *     <li>
+ *         a lower bound of the distance to every other centroid.
+ *     </li>
+ * </ul>
+ * If the upper bound is smaller than the lower bound, or smaller than half the distance between its centroid and the
+ * centroid closest to that, no other centroid can be closer and the pixel keeps its cluster without a single distance
+ * being computed. After the centroids are recomputed, the bounds are loosened by the distance the centroids moved. <br>
+ * Late in the run, when the centroids hardly move, most of the distance computations are skipped. The engine assigns
+ * the pixels exactly like {@link KMeansMode#SEQUENTIAL}.
+ *
+ * @author &copy; 2024 Elisa Johanna Woelk | elisa-johanna.woelk@outlook.de | @fenris_22127
+ * @version 1.0
+ * @since 18.0.1
+ */
+final class HamerlyKMeans implements KMeansStep {
+
+    /**
+     * The upper bound of the distance of each pixel to the centroid of its cluster
+     */
+    private double[] upper;
+    /**
+     * The lower bound of the distance of each pixel to every centroid except the one of its cluster
+     */
+    private double[] lower;
+    /**
+     * The number of distance computations skipped in the last iteration
+     */
+    private long skipped = 0;
+
+    @Override
+    public double iterate(ColorData colorData, int totalCentroids) {
+        PixelStore pixels = colorData.getPixels();
+        double[] centroids = KMeans.toArray(colorData.getCentroids());
+
+        if (upper == null) {
+            upper = new double[pixels.size()];
+            lower = new double[pixels.size()];
+            skipped = 0;
+            for (int p = 0; p < pixels.size(); p++) {
+                assignFully(colorData, pixels, centroids, totalCentroids, p);
+            }
+        } else {
+            skipped = assignWithBounds(colorData, pixels, centroids, totalCentroids);
+        }
+
+        double sumSquaredErrors = colorData.recomputeCentroids(totalCentroids);
+
+        loosenBounds(colorData, centroids, KMeans.toArray(colorData.getCentroids()), totalCentroids);
+        return sumSquaredErrors;
+    }
+
+    @Override
+    public long getSkippedDistances() {
+        return skipped;
+    }
+
+    /**
+     * Assigns every pixel whose bounds don't rule out a change of its cluster
+     *
+     * @param colorData      The instance used for all processes for the currently inspected image
+     * @param pixels         The pixels of the image
+     * @param centroids      The x, y and z coordinates of all centroids, one after another
+     * @param totalCentroids The number of centroids
+     * @return A {@link Long long} - The number of distance computations skipped
+     */
+    private long assignWithBounds(ColorData colorData, PixelStore pixels, double[] centroids, int totalCentroids) {
+        double[] halfDistance = halfDistanceToClosestCentroid(centroids, totalCentroids);
+        long skippedDistances = 0;
+
+        for (int p = 0; p < pixels.size(); p++) {
+            int cluster = colorData.getClusterNo(p);
+            double bound = Math.max(halfDistance[cluster], lower[p]);
+            if (upper[p] < bound) {
+                skippedDistances += totalCentroids;
+                continue;
+            }
+            //tighten the upper bound and test again
+            upper[p] = distance(centroids, cluster, pixels.getX(p), pixels.getY(p), pixels.getZ(p));
+            if (upper[p] < bound) {
+                skippedDistances += totalCentroids - 1;
+                continue;
+            }
+            assignFully(colorData, pixels, centroids, totalCentroids, p);
+        }
+        return skippedDistances;
+    }
+
+    /**
+     * Computes the distance of a pixel to every centroid, assigns it to the closest one and sets both of its bounds
+     * to their exact values
+     *
+     * @param colorData      The instance used for all processes for the currently inspected image
+     * @param pixels         The pixels of the image
+     * @param centroids      The x, y and z coordinates of all centroids, one after another
+     * @param totalCentroids The number of centroids
+     * @param p              The index of the pixel
+     */
+    private void assignFully(ColorData colorData, PixelStore pixels, double[] centroids, int totalCentroids, int p) {
+        double x = pixels.getX(p);
+        double y = pixels.getY(p);
+        double z = pixels.getZ(p);
+        int nearest = 0;
+        double minDist = Double.MAX_VALUE;
+        double secondDist = Double.MAX_VALUE;
+        for (int i = 0; i < totalCentroids; i++) {
+            double dist = distance(centroids, i, x, y, z);
+            if (dist < minDist) {
+                secondDist = minDist;
+                minDist = dist;
+                nearest = i;
+            } else if (dist < secondDist) {
+                secondDist = dist;
+            }
+        }
+        colorData.setClusterNo(p, nearest);
+        upper[p] = minDist;
+        lower[p] = secondDist;
+    }
+
+    /**
+     * Loosens the bounds of every pixel by the distance the centroids moved: the upper bound grows by the distance
+     * its own centroid moved, the lower bound shrinks by the largest distance any other centroid moved
+     *
+     * @param colorData      The instance used for all processes for the currently inspected image
+     * @param oldCentroids   The coordinates of the centroids before they were recomputed
+     * @param newCentroids   The coordinates of the recomputed centroids
+     * @param totalCentroids The number of centroids
+     */
+    private void loosenBounds(ColorData colorData, double[] oldCentroids, double[] newCentroids, int totalCentroids) {
+        double[] moved = new double[totalCentroids];
+        int mostMoved = 0;
+        double maxMoved = 0.0;
+        double secondMoved = 0.0;
+        for (int i = 0; i < totalCentroids; i++) {
+            moved[i] = distance(oldCentroids, i, newCentroids[i * 3], newCentroids[i * 3 + 1], newCentroids[i * 3 + 2]);
+            if (moved[i] > maxMoved) {
+                secondMoved = maxMoved;
+                maxMoved = moved[i];
+                mostMoved = i;
+            } else if (moved[i] > secondMoved) {
+                secondMoved = moved[i];
+            }
+        }
+        for (int p = 0; p < upper.length; p++) {
+            int cluster = colorData.getClusterNo(p);
+            upper[p] += moved[cluster];
+            lower[p] -= cluster == mostMoved ? secondMoved : maxMoved;
+        }
+    }
+
+    /**
+     * Calculates half the distance of every centroid to the centroid closest to it. A pixel closer to its centroid
+     * than that cannot be closer to any other centroid.
+     *
+     * @param centroids      The x, y and z coordinates of all centroids, one after another
+     * @param totalCentroids The number of centroids
+     * @return A {@link Double double} array - Half the distance to the closest other centroid for every centroid
+     */
+    private static double[] halfDistanceToClosestCentroid(double[] centroids, int totalCentroids) {
+        double[] halfDistance = new double[totalCentroids];
+        for (int i = 0; i < totalCentroids; i++) {
+            double minDist = Double.MAX_VALUE;
+            for (int j = 0; j < totalCentroids; j++) {
+                if (i != j) {
+                    minDist = Math.min(minDist,
+                            distance(centroids, j, centroids[i * 3], centroids[i * 3 + 1], centroids[i * 3 + 2]));
+                }
+            }
+            halfDistance[i] = minDist / 2;
+        }
+        return halfDistance;
+    }
+
+    /**
+     * Calculates the Euclidean Distance between a centroid and a point
+     *
+     * @param centroids The x, y and z coordinates of all centroids, one after another
+     * @param centroid  The number of the centroid
+     * @param x         The x coordinate of the point
+     * @param y         The y coordinate of the point
+     * @param z         The z coordinate of the point
+     * @return A {@link Double double} - The distance between the centroid and the point
+     */
+    private static double distance(double[] centroids, int centroid, double x, double y, double z) {
+        double dx = x - centroids[centroid * 3];
+        double dy = y - centroids[centroid * 3 + 1];
+        double dz = z - centroids[centroid * 3 + 2];
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+}
@@ -0,0 +1,220 @@
+package de.colorscheme.clustering;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Reads images no larger than needed for determining their colors. <br>
+ * The size of the image is read from its header before any pixel is decoded. If the image has more pixels than
+ * requested, the decoder is told to only decode every n-th pixel of every n-th row with
+ * {@link ImageReadParam#setSourceSubsampling(int, int, int, int)}, so a large image is never held in memory in its
+ * original size. Evenly spread over the image, the decoded pixels have practically the same colors in the same
+ * proportions as all pixels of the image. <br>
+ * Images too large to be held in memory even once can be {@link #readHistogram(File, int, long) streamed} into a
+ * {@link ColorHistogram} a region at a time.
+ *
+ * @author &copy; 2024 Elisa Johanna Woelk | elisa-johanna.woelk@outlook.de | @fenris_22127
+ * @version 1.0
+ * @since 18.0.1
+ */
+public final class ImageLoader {
+
+    /**
+     * Private constructor to hide the public one
+     */
+    private ImageLoader() {
+    }
+
+    /**
+     * Reads the width and height of an image from its header without decoding any pixel
+     *
+     * @param file A {@link File}: The image file
+     * @return A {@link Dimension} - The size of the image, or {@code null} if no installed decoder can read the file
+     * @throws IOException An {@link IOException} - If the file cannot be read
+     */
+    public static Dimension readSize(File file) throws IOException {
+        try (ImageInputStream stream = ImageIO.createImageInputStream(file)) {
+            ImageReader reader = findReader(stream);
+            if (reader == null) {
+                return null;
+            }
+            try {
+                return new Dimension(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Reads an image, decoding only as many of its pixels as the passed maximum allows
+     *
+     * @param file      A {@link File}: The image file
+     * @param maxPixels A {@link Long long}: The largest number of pixels of the returned image, at least 1
+     * @return A {@link BufferedImage} - The image, subsampled if it has more pixels than {@code maxPixels}, or
+     * {@code null} if no installed decoder can read the file, like {@link ImageIO#read(File)}
+     * @throws IOException An {@link IOException} - If the file cannot be read
+     */
+    public static BufferedImage read(File file, long maxPixels) throws IOException {
+        if (maxPixels < 1) {
+            throw new IllegalArgumentException("At least one pixel has to be read! Actual value: " + maxPixels);
+        }
+        try (ImageInputStream stream = ImageIO.createImageInputStream(file)) {
+            ImageReader reader = findReader(stream);
+            if (reader == null) {
+                return null;
+            }
+            try {
+                return readSubsampled(reader, maxPixels);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Folds the pixels of an image into a {@link ColorHistogram} without ever holding more than the passed number of
+     * pixels, or a single tile of the image if it is larger, in memory. <br>
+     * If the decoder can jump to any part of the image, e.g. for TIFF, the image is decoded in regions of whole tiles
+     * or strips of rows, each folded into the histogram and thrown away before the next one is decoded, so every pixel
+     * is counted. Decoders reading the file from start to end, e.g. for JPEG and PNG, would decode all rows above a
+     * region again for every region, so these images are {@link #read(File, long) subsampled} to the maximum number
+     * of pixels and decoded at once instead.
+     *
+     * @param file           A {@link File}: The image file
+     * @param bitsPerChannel An {@link Integer int} between 1 and {@link ColorHistogram#EXACT_BITS 8}: The number of
+     *                       bits per channel of the histogram
+     * @param maxPixels      A {@link Long long}: The largest number of pixels decoded at once, at least 1
+     * @return A {@link ColorHistogram} - The colors of the image, or {@code null} if no installed decoder can read the
+     * file
+     * @throws IOException An {@link IOException} - If the file cannot be read
+     */
+    public static ColorHistogram readHistogram(File file, int bitsPerChannel, long maxPixels) throws IOException {
+        if (maxPixels < 1) {
+            throw new IllegalArgumentException("At least one pixel has to be read! Actual value: " + maxPixels);
+        }
+        ColorHistogram histogram = new ColorHistogram(bitsPerChannel);
+        try (ImageInputStream stream = ImageIO.createImageInputStream(file)) {
+            ImageReader reader = findReader(stream);
+            if (reader == null) {
+                return null;
+            }
+            try {
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if (!reader.isRandomAccessEasy(0) && !reader.isImageTiled(0)) {
+                    addAll(readSubsampled(reader, maxPixels), histogram);
+                    return histogram;
+                }
+
+                int tileWidth = Math.min(width, reader.getTileWidth(0));
+                int tileHeight = Math.min(height, reader.getTileHeight(0));
+                int regionWidth = width;
+                if ((long) width * tileHeight > maxPixels) {
+                    regionWidth = (int) Math.min(width, Math.max(1, maxPixels / tileHeight / tileWidth) * tileWidth);
+                }
+                int regionHeight = (int) Math.min(height,
+                        Math.max(1, maxPixels / regionWidth / tileHeight) * tileHeight);
+                for (int y = 0; y < height; y += regionHeight) {
+                    for (int x = 0; x < width; x += regionWidth) {
+                        ImageReadParam param = reader.getDefaultReadParam();
+                        param.setSourceRegion(new Rectangle(x, y, Math.min(regionWidth, width - x),
+                                Math.min(regionHeight, height - y)));
+                        addAll(reader.read(0, param), histogram);
+                    }
+                }
+                return histogram;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Decodes the image the passed decoder points to, subsampled to the passed maximum number of pixels
+     *
+     * @param reader    The {@link ImageReader} pointing to the image
+     * @param maxPixels The largest number of pixels of the returned image
+     * @return A {@link BufferedImage} - The decoded image
+     * @throws IOException An {@link IOException} - If the file cannot be read
+     */
+    private static BufferedImage readSubsampled(ImageReader reader, long maxPixels) throws IOException {
+        int subsampling = getSubsampling(reader.getWidth(0), reader.getHeight(0), maxPixels);
+        ImageReadParam param = reader.getDefaultReadParam();
+        if (subsampling > 1) {
+            param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+        }
+        return reader.read(0, param);
+    }
+
+    /**
+     * Folds all pixels of a decoded image or region into a histogram
+     *
+     * @param image     The decoded image or region
+     * @param histogram The {@link ColorHistogram} the pixels are added to
+     */
+    private static void addAll(BufferedImage image, ColorHistogram histogram) {
+        int[] row = new int[image.getWidth()];
+        for (int y = 0; y < image.getHeight(); y++) {
+            RasterReader.readRow(image, y, row);
+            for (int rgb : row) {
+                histogram.add(rgb);
+            }
+        }
+    }
+
+    /**
+     * Calculates the smallest step between the decoded pixels, along both axes, that keeps the number of decoded pixels
+     * within the passed maximum
+     *
+     * @param width     An {@link Integer int}: The width of the image
+     * @param height    An {@link Integer int}: The height of the image
+     * @param maxPixels A {@link Long long}: The largest number of decoded pixels, at least 1
+     * @return An {@link Integer int} - The step, 1 if the image has at most {@code maxPixels} pixels
+     */
+    static int getSubsampling(int width, int height, long maxPixels) {
+        int subsampling = (int) Math.max(1, Math.sqrt((double) width * height / maxPixels));
+        while (subsampledLength(width, subsampling) * subsampledLength(height, subsampling) > maxPixels) {
+            subsampling++;
+        }
+        return subsampling;
+    }
+
+    /**
+     * Calculates the number of pixels decoded along one axis
+     *
+     * @param length      The length of the axis
+     * @param subsampling The step between the decoded pixels
+     * @return A {@link Long long} - The number of decoded pixels
+     */
+    private static long subsampledLength(int length, int subsampling) {
+        return (length + subsampling - 1) / subsampling;
+    }
+
+    /**
+     * Finds a decoder for the passed stream and points it to the stream
+     *
+     * @param stream The {@link ImageInputStream} of the image file
+     * @return An {@link ImageReader} - The decoder, or {@code null} if no installed decoder can read the stream
+     */
+    private static ImageReader findReader(ImageInputStream stream) {
+        if (stream == null) {
+            return null;
+        }
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+        if (!readers.hasNext()) {
+            return null;
+        }
+        ImageReader reader = readers.next();
+        reader.setInput(stream, true, true);
+        return reader;
+    }
+}
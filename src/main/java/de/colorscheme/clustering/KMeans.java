@@ -3,6 +3,9 @@ package de.colorscheme.clustering;
 import javafx.geometry.Point3D;
 
 import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import static de.colorscheme.app.AppController.*;
 import static de.colorscheme.app.AppController.getResBundle;
@@ -16,32 +19,12 @@ import static de.colorscheme.app.AppController.getResBundle;
  */
 public class KMeans {
 
-    /**
-     * The value, deciding when the amount of changes after recalculating the centroids is low enough to finish the
-     * clustering process
-     */
-    private static final Double PRECISION = 0.0;
-
-    /**
-     * The number of centroids to be generated for KMeans, determining how many colors will be generated from the image
-     */
-    private static int centroids = 0;
-
     /**
      * Private constructor to hide the public one
      */
     private KMeans() {
     }
 
-    /**
-     * Returns number of centroids to be generated for KMeans
-     *
-     * @return An {@link Integer}: The value of {@link #centroids}
-     */
-    public static int getCentroids() {
-        return centroids;
-    }
-
     /**
      * K-Means++ implementation: initializes centroids from data by selecting a
      * {@link ColorData#randomIndexFromPoint3DList() random data point} from the {@link ColorData#pixelColor list}
@@ -55,7 +38,7 @@ public class KMeans {
      *         {@link ColorData#getIndicesOfCentroids() list of indices of centroids}.
      *     </li>
      *     <li>
-     *         Adds the {@link ColorData.Pixels#pixel pixel} at the randomly chosen index
+     *         Adds the {@link ColorData#getPixel(int) pixel} at the randomly chosen index
      *         to the {@link ColorData#getCentroids() list of centroids}.
      *     </li>
      *     <li>
@@ -74,33 +57,66 @@ public class KMeans {
         //Add index of chosen pixel to list with indices of centroids
         colorData.getIndicesOfCentroids().add(randomIndex);
         //Add pixel at previously chosen index to list with centroids
-        colorData.getCentroids().add(colorData.pixelColor.get(randomIndex).pixel);
+        colorData.getCentroids().add(colorData.getPixel(randomIndex));
         for (int i = 1; i < totalCentroids; i++) {
             colorData.getCentroids().add(colorData.calculateWeighedCentroid());
         }
     }
 
     /**
-     * Clusters the colors from the image's {@link ColorData.Pixels pixels} and calculates
-     * a {@link #centroids number of centroids} to determine the main colors of the image.
+     * Starts from centroids passed by the caller, e.g. the palette of an earlier run, instead of picking all of them
+     * anew. If fewer centroids than requested are passed, the others are picked the way
+     * {@link #kMeansPlusPlus(ColorData, int) K-Means++} picks them, far away from the passed ones.
+     *
+     * @param colorData        An Instance of the class {@link ColorData}
+     * @param initialCentroids A {@link List} of {@link Point3D}: The centroids to start from, at least one, only the
+     *                         first {@code totalCentroids} are used
+     * @param totalCentroids   An {@link Integer} - The number of total centroids to be calculated
+     */
+    static void warmStart(ColorData colorData, List<Point3D> initialCentroids, int totalCentroids) {
+        colorData.startFrom(initialCentroids.subList(0, Math.min(initialCentroids.size(), totalCentroids)));
+        while (colorData.getCentroids().size() < totalCentroids) {
+            colorData.getCentroids().add(colorData.calculateWeighedCentroid());
+        }
+    }
+
+    /**
+     * Clusters the colors from the image's {@link ColorData#getPixels() pixels} and calculates
+     * the passed number of centroids to determine the main colors of the image. <br>
+     * All state of the run is kept in the passed {@link ColorData}, so several images can be clustered at the same time
+     * on different threads.
      * <ol>
      *     <li>
-     *         Sets the {@link #centroids number of centroids} to the passed value.
+     *         Starts the KMeans algorithm with {@link #kMeansPlusPlus(ColorData, int) KMeans++} or, if set in the
+     *         passed {@link KMeansConfig}, with {@link KMeansInitialization#K_MEANS_PARALLEL KMeans||} or the palette
+     *         of the {@link KMeansInitialization#WU Wu quantizer}. If {@link KMeansConfig#getInitialCentroids()
+     *         starting centroids} are set, the algorithm {@link #warmStart(ColorData, List, int) starts from them}
+     *         instead.
+     *     </li>
+     *     <li>
+     *         If the {@link KMeansConfig#getColorSpace() color space} is {@link ClusteringColorSpace#LAB Lab}, the
+     *         following steps run on a copy of the pixels {@link CieLab converted} to Lab, and the resulting centroids
+     *         are converted back to sRGB at the end.
      *     </li>
      *     <li>
-     *         Starts the KMeans algorithm with {@link #kMeansPlusPlus(ColorData, int) KMeans++}.
+     *         If more than one {@link KMeansConfig#getRestarts() run} is set, the following steps are
+     *         {@link MultiRestartKMeans repeated} from different starting centroids and the run with the lowest Sum of
+     *         Squared Errors is kept. With a {@link KMeansConfig#getSeed() seed}, the result is the same on every call.
      *     </li>
      *     <li>
      *         If the {@link java.util.LinkedList list} containing the {@link ColorData#getCentroids() centroids}
      *         {@link AbstractCollection#isEmpty() is empty}, the program is ended and the user is informed.
      *     </li>
      *     <li>
-     *         The Sum of Squared Errors is initialized by being set to the {@link Double#MAX_VALUE maximum} value for
-     *         a {@link Double}.
+     *         The Sum of Squared Errors is initialized by being set to {@link Double#NaN NaN}, as no iteration has run
+     *         yet.
      *     </li>
      *     <li>
-     *         The method then enters a while-true loop that will only end if the Sum of Squared Errors reaches the
-     *         value specified by {@link #PRECISION}.
+     *         The method then enters a loop that only ends when the {@link KMeansConfig#getConvergence() convergence
+     *         policy} set in the passed {@link KMeansConfig} says so. Each iteration is run by the {@link KMeansStep}
+     *         for the {@link KMeansConfig#getMode() engine} set in the passed {@link KMeansConfig}. The
+     *         {@link KMeansMode#SEQUENTIAL sequential} engine works as follows, the others produce the same result.
+     *         Only the {@link KMeansMode#MINI_BATCH mini-batch} engine runs its own loop, see {@link MiniBatchKMeans}.
      *     </li>
      *     <li>
      *         Then, the closest centroid for each pixel will be determined by:
@@ -111,68 +127,292 @@ public class KMeans {
      *             </li>
      *             <li>
      *                 then iterating through the {@link ColorData#getCentroids() list of centroids} and determining
-     *                 the {@link ColorData#euclideanDistance(Point3D, Point3D) distance} of the pixel to the currently
-     *                 selected centroid. If the distance is less than the shortest distance so far, the shortest
-     *                 distance is set to the newly calculated distance and the pixels cluster number is
-     *                 {@link ColorData.Pixels#setClusterNo(Integer) set} to the index of
-     *                 the currently selected centroid.
+     *                 the squared {@link ColorData#euclideanDistance(Point3D, double, double, double) distance} of the
+     *                 pixel to the currently selected centroid. If the distance is less than the shortest distance so
+     *                 far, the shortest distance is set to the newly calculated distance and the centroid is noted as
+     *                 the closest one. The square root is left out, as it doesn't change which centroid is closest.
+     *             </li>
+     *             <li>
+     *                 finally {@link ColorData#setClusterNo(int, int) setting} the pixel's cluster number to the index
+     *                 of the closest centroid.
      *             </li>
      *         </ul>
      *     </li>
      *     <li>
-     *         All centroids are then recomputed according to the new cluster assignments.
+     *         All centroids are then recomputed according to the new cluster assignments, which also yields the
+     *         current Sum of Squared Errors.
+     *     </li>
+     *     <li>
+     *         Finally, the previous and the current Sum of Squared Errors, the share of pixels that changed their
+     *         cluster, the number of iterations and the elapsed time are passed to the
+     *         {@link ConvergencePolicy#check(int, double, double, double, long) convergence policy}. If it returns a
+     *         {@link KMeansStopReason criterion}, the loop is exited and the criterion is recorded in the
+     *         {@link KMeansReport report}.
      *     </li>
      *     <li>
-     *         Finally, the current Sum of Squared Errors, meaning the amount of changes after recalculating the
-     *         centroids, is calculated and tested, whether, when subtracted from the total Sum of Squared Errors, the
-     *         result is equal to or less than the {@link #PRECISION}. If so, the while loop is exited.
+     *         If the run doesn't end, the total Sum of Squared Errors is set to the newly calculated Sum of Squared
+     *         Errors and the loop repeats.
      *     </li>
      *     <li>
-     *         If the {@link #PRECISION} is not reached, the total Sum of Squared Errors is set to the newly calculated
-     *         Sum of Squared Errors and the loop repeats.
+     *         If an earlier iteration had a lower Sum of Squared Errors than the last one, e.g. because the
+     *         {@link KMeansConvergence#getTimeBudget() time budget} ended the run, its centroids are restored and every
+     *         pixel is assigned to its closest centroid again.
      *     </li>
      * </ol>
      *
      * @param colorData      A {@link ColorData} object: The instance used for all processes for the currently inspected
      *                       image
      * @param totalCentroids An {@link Integer int}: The number of centroids to be calculated
+     * @param config         A {@link KMeansConfig}: The settings for the clustering process
+     * @return A {@link KMeansReport} - The statistics of the run
      **/
-    public static void kMeans(ColorData colorData, int totalCentroids) {
-        centroids = totalCentroids;
-        kMeansPlusPlus(colorData, centroids);
+    public static KMeansReport kMeans(ColorData colorData, int totalCentroids, KMeansConfig config) {
+        long start = System.currentTimeMillis();
+        if (config.getColorSpace() != ClusteringColorSpace.LAB) {
+            return MultiRestartKMeans.run(colorData, totalCentroids, config, start);
+        }
+
+        //cluster a copy of the pixels converted to Lab and convert the result back to sRGB
+        ColorData labData = new ColorData(CieLab.toLab(colorData.getPixels()));
+        KMeansReport report = MultiRestartKMeans.run(labData, totalCentroids, config, start);
+        copyFromLab(labData, colorData);
+        return report;
+    }
+
+    /**
+     * Copies the result of a run in {@link ClusteringColorSpace#LAB Lab} to the {@link ColorData} the pixels were
+     * converted from: the centroids converted back to sRGB and the cluster of every pixel
+     *
+     * @param labData   A {@link ColorData} object: The instance holding the pixels converted to Lab
+     * @param colorData A {@link ColorData} object: The instance holding the pixels in sRGB
+     */
+    static void copyFromLab(ColorData labData, ColorData colorData) {
+        colorData.getCentroids().clear();
+        for (Point3D centroid : labData.getCentroids()) {
+            colorData.getCentroids().add(CieLab.toRgb(centroid));
+        }
+        for (int p = 0; p < colorData.getPixels().size(); p++) {
+            colorData.setClusterNo(p, labData.getClusterNo(p));
+        }
+    }
+
+    /**
+     * Runs the clustering process described in {@link #kMeans(ColorData, int, KMeansConfig)} in the color space the
+     * pixels of the passed {@link ColorData} are stored in
+     *
+     * @param colorData      A {@link ColorData} object: The instance holding the pixels to be clustered
+     * @param totalCentroids An {@link Integer int}: The number of centroids to be calculated
+     * @param config         A {@link KMeansConfig}: The settings for the clustering process
+     * @param start          A {@link Long long}: The {@link System#currentTimeMillis() time} the run started at
+     * @return A {@link KMeansReport} - The statistics of the run
+     */
+    static KMeansReport cluster(ColorData colorData, int totalCentroids, KMeansConfig config, long start) {
+        colorData.startFrom(Collections.<Point3D>emptyList());
+        List<Point3D> initialCentroids = config.getInitialCentroids();
+        if (!initialCentroids.isEmpty()) {
+            if (config.getColorSpace() == ClusteringColorSpace.LAB) {
+                List<Point3D> labCentroids = new ArrayList<>();
+                for (Point3D centroid : initialCentroids) {
+                    labCentroids.add(CieLab.toLab(centroid));
+                }
+                initialCentroids = labCentroids;
+            }
+            warmStart(colorData, initialCentroids, totalCentroids);
+        } else {
+            initialize(colorData, totalCentroids, config);
+        }
         if (colorData.getCentroids().isEmpty()) {
             addToOutputField(getResBundle().getString("emptyCentroidList"), true);
         }
 
-        Double sumSquaredErrors = Double.MAX_VALUE;
+        KMeansReport report = new KMeansReport((long) colorData.getPixels().size() * totalCentroids);
 
-        while (true) {
-            for (ColorData.Pixels pixel : colorData.getPixels()) {
-                double minDist = Double.MAX_VALUE;
+        if (config.getMode() == KMeansMode.MINI_BATCH) {
+            MiniBatchKMeans.run(colorData, totalCentroids, config, report, start);
+            return report;
+        }
+
+        ConvergencePolicy convergence = config.getConvergence();
+        short[] previousClusterNo = new short[colorData.getPixels().size()];
+        double sumSquaredErrors = Double.NaN;
+        double bestSumSquaredErrors = Double.MAX_VALUE;
+        List<Point3D> bestCentroids = new ArrayList<>(colorData.getCentroids());
 
-                //Iterate through centroids ...
-                for (int i = 0; i < colorData.getCentroids().size(); i++) {
-                    //...to find the centroid at a minimum distance from it
-                    Double dist = ColorData.euclideanDistance(colorData.getCentroids().get(i), pixel.getPixel());
+        try (KMeansStep step = createStep(config)) {
+            KMeansStopReason stopReason = null;
+            while (stopReason == null) {
+                double newSumSquaredErrors = step.iterate(colorData, totalCentroids);
+                report.addIteration(step.getSkippedDistances(), newSumSquaredErrors);
 
-                    //...and add the color value to its cluster
-                    if (dist < minDist) {
-                        minDist = dist;
-                        pixel.setClusterNo(i);
-                    }
+                if (newSumSquaredErrors < bestSumSquaredErrors) {
+                    bestSumSquaredErrors = newSumSquaredErrors;
+                    bestCentroids.clear();
+                    bestCentroids.addAll(colorData.getCentroids());
                 }
+
+                // exit condition, decided by the convergence policy
+                stopReason = convergence.check(report.getIterations(), sumSquaredErrors, newSumSquaredErrors,
+                        colorData.updateChangedShare(previousClusterNo), System.currentTimeMillis() - start);
+
+                sumSquaredErrors = newSumSquaredErrors;
             }
+            report.setStopReason(stopReason);
+        }
 
-            //recompute centroids according to new cluster assignments
-            colorData.recomputeCentroids(totalCentroids);
+        if (sumSquaredErrors > bestSumSquaredErrors) {
+            for (int i = 0; i < totalCentroids; i++) {
+                colorData.getCentroids().set(i, bestCentroids.get(i));
+            }
+            assignToNearestCentroid(colorData, totalCentroids);
+        }
+        return report;
+    }
 
-            // exit condition, SSE changed less than PRECISION parameter
-            Double newSumSquaredErrors = colorData.calculateTotalSumSquaredDistances(colorData.getCentroids());
-            if (sumSquaredErrors - newSumSquaredErrors <= PRECISION) {
+    /**
+     * Picks the starting centroids with the {@link KMeansConfig#getInitialization() method} set in the passed
+     * {@link KMeansConfig}
+     *
+     * @param colorData      A {@link ColorData} object: The instance holding the pixels to be clustered
+     * @param totalCentroids An {@link Integer int}: The number of centroids to be calculated
+     * @param config         A {@link KMeansConfig}: The settings providing the method and the number of threads
+     */
+    private static void initialize(ColorData colorData, int totalCentroids, KMeansConfig config) {
+        switch (config.getInitialization()) {
+            case K_MEANS_PARALLEL:
+                KMeansParallelInitializer.initialize(colorData, totalCentroids, config.getThreads());
                 break;
-            }
+            case WU:
+                colorData.setPalette(WuQuantizer.palette(colorData.getPixels(), totalCentroids), totalCentroids);
+                break;
+            case K_MEANS_PLUS_PLUS:
+            default:
+                kMeansPlusPlus(colorData, totalCentroids);
+                break;
+        }
+    }
+
+    /**
+     * Clusters the colors from the image's {@link ColorData#getPixels() pixels} with the default
+     * {@link KMeansConfig settings}, see {@link #kMeans(ColorData, int, KMeansConfig)}
+     *
+     * @param colorData      A {@link ColorData} object: The instance used for all processes for the currently inspected
+     *                       image
+     * @param totalCentroids An {@link Integer int}: The number of centroids to be calculated
+     * @return A {@link KMeansReport} - The statistics of the run
+     */
+    public static KMeansReport kMeans(ColorData colorData, int totalCentroids) {
+        return kMeans(colorData, totalCentroids, new KMeansConfig());
+    }
+
+    /**
+     * Creates the {@link KMeansStep} running the iterations for the {@link KMeansConfig#getMode() engine} set in the
+     * passed {@link KMeansConfig}. The {@link KMeansMode#MINI_BATCH mini-batch} engine has no step, it runs its own
+     * loop in {@link MiniBatchKMeans} and is handed over before any step is created.
+     *
+     * @param config A {@link KMeansConfig}: The settings for the clustering process
+     * @return A {@link KMeansStep} - The engine
+     */
+    private static KMeansStep createStep(KMeansConfig config) {
+        switch (config.getMode()) {
+            case PARALLEL:
+                return new ParallelKMeans(config.getThreads());
+            case HAMERLY:
+                return new HamerlyKMeans();
+            case VECTOR:
+                return new VectorKMeans();
+            case KD_TREE:
+                return new KdTreeKMeans();
+            case GRID:
+                return new GridKMeans();
+            case MINI_BATCH:
+                throw new IllegalStateException("The mini-batch engine runs its own loop and has no step!");
+            case SEQUENTIAL:
+            default:
+                return KMeans::iterate;
+        }
+    }
+
+    /**
+     * Runs one iteration of the {@link KMeansMode#SEQUENTIAL sequential} engine: assigns every pixel to its closest
+     * centroid, recomputes all centroids and calculates the Sum of Squared Errors around them
+     *
+     * @param colorData      A {@link ColorData} object: The instance used for all processes for the currently inspected
+     *                       image
+     * @param totalCentroids An {@link Integer int}: The number of centroids
+     * @return A {@link Double double} - The Sum of Squared Errors around the recomputed centroids
+     */
+    private static double iterate(ColorData colorData, int totalCentroids) {
+        PixelStore pixels = colorData.getPixels();
+        //compare squared distances on a flat array, without a Point3D or a square root per distance
+        double[] centroidArray = toArray(colorData.getCentroids());
+
+        for (int p = 0; p < pixels.size(); p++) {
+            colorData.setClusterNo(p, nearestCentroid(centroidArray, totalCentroids,
+                    pixels.getX(p), pixels.getY(p), pixels.getZ(p)));
+        }
+
+        //recompute centroids according to new cluster assignments
+        return colorData.recomputeCentroids(totalCentroids);
+    }
 
-            sumSquaredErrors = newSumSquaredErrors;
+    /**
+     * Assigns every pixel to its closest centroid without recomputing the centroids
+     *
+     * @param colorData      A {@link ColorData} object: The instance used for all processes for the currently inspected
+     *                       image
+     * @param totalCentroids An {@link Integer int}: The number of centroids
+     */
+    static void assignToNearestCentroid(ColorData colorData, int totalCentroids) {
+        PixelStore pixels = colorData.getPixels();
+        double[] centroidArray = toArray(colorData.getCentroids());
+        for (int p = 0; p < pixels.size(); p++) {
+            colorData.setClusterNo(p, nearestCentroid(centroidArray, totalCentroids,
+                    pixels.getX(p), pixels.getY(p), pixels.getZ(p)));
+        }
+    }
+
+    /**
+     * Copies the coordinates of the passed centroids into a flat array, for fast access in the engines' hot loops
+     *
+     * @param centroidList The {@link List} of centroids
+     * @return A {@link Double double} array - The x, y and z coordinates of all centroids, one after another
+     */
+    static double[] toArray(List<Point3D> centroidList) {
+        double[] array = new double[centroidList.size() * 3];
+        for (int i = 0; i < centroidList.size(); i++) {
+            Point3D centroid = centroidList.get(i);
+            array[i * 3] = centroid.getX();
+            array[i * 3 + 1] = centroid.getY();
+            array[i * 3 + 2] = centroid.getZ();
+        }
+        return array;
+    }
+
+    /**
+     * Finds the centroid closest to the passed point. Compares squared distances, which yields the same centroid as
+     * comparing {@link ColorData#euclideanDistance(Point3D, double, double, double) distances}, and picks the first
+     * one on a tie.
+     *
+     * @param centroids      The x, y and z coordinates of all centroids, as returned by {@link #toArray(List)}
+     * @param totalCentroids The number of centroids
+     * @param x              The x coordinate of the point
+     * @param y              The y coordinate of the point
+     * @param z              The z coordinate of the point
+     * @return An {@link Integer int} - The number of the closest centroid
+     */
+    static int nearestCentroid(double[] centroids, int totalCentroids, double x, double y, double z) {
+        int nearest = 0;
+        double minDist = Double.MAX_VALUE;
+        for (int i = 0; i < totalCentroids; i++) {
+            double dx = x - centroids[i * 3];
+            double dy = y - centroids[i * 3 + 1];
+            double dz = z - centroids[i * 3 + 2];
+            double dist = dx * dx + dy * dy + dz * dz;
+            if (dist < minDist) {
+                minDist = dist;
+                nearest = i;
+            }
         }
+        return nearest;
     }
 }
\ No newline at end of file
@@ -0,0 +1,321 @@
+package de.colorscheme.clustering;
+
+import javafx.geometry.Point3D;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The settings for one run of {@link KMeans#kMeans(ColorData, int, KMeansConfig)}. <br>
+ * All settings start with their default value and can be changed by chaining the {@code with...} methods, e.g.
+ * <pre>{@code new KMeansConfig().withMode(KMeansMode.PARALLEL).withThreads(8)}</pre>
+ *
+ * @author &copy; 2024 Elisa Johanna Woelk | elisa-johanna.woelk@outlook.de | @fenris_22127
+ * @version 1.0
+ * @since 18.0.1
+ */
+public class KMeansConfig {
+
+    /**
+     * The {@link KMeansMode engine} used for the clustering process
+     */
+    private KMeansMode mode = KMeansMode.SEQUENTIAL;
+    /**
+     * The number of threads used by {@link KMeansMode#PARALLEL} and {@link KMeansInitialization#K_MEANS_PARALLEL}
+     */
+    private int threads = Runtime.getRuntime().availableProcessors();
+    /**
+     * The {@link KMeansInitialization method} used for picking the starting centroids
+     */
+    private KMeansInitialization initialization = KMeansInitialization.K_MEANS_PLUS_PLUS;
+    /**
+     * The number of pixels drawn for each batch of {@link KMeansMode#MINI_BATCH}
+     */
+    private int batchSize = 1024;
+    /**
+     * The maximum number of batches drawn by {@link KMeansMode#MINI_BATCH}
+     */
+    private int batchIterations = 100;
+    /**
+     * The {@link ConvergencePolicy} deciding when the clustering process ends
+     */
+    private ConvergencePolicy convergence = new KMeansConvergence();
+    /**
+     * The {@link ClusteringColorSpace color space} the distances between colors are measured in
+     */
+    private ClusteringColorSpace colorSpace = ClusteringColorSpace.RGB;
+    /**
+     * The number of independent runs, of which the one with the lowest Sum of Squared Errors is kept
+     */
+    private int restarts = 1;
+    /**
+     * The seed the random values are drawn from, {@code null} for different values on every run
+     */
+    private Long seed = null;
+    /**
+     * The centroids the clustering process starts from, e.g. the palette of an earlier run, empty for picking all
+     * starting centroids with the {@link #initialization} method
+     */
+    private List<Point3D> initialCentroids = Collections.emptyList();
+
+    /**
+     * Returns the {@link KMeansMode engine} used for the clustering process
+     *
+     * @return A {@link KMeansMode}: The engine, {@link KMeansMode#SEQUENTIAL} by default
+     */
+    public KMeansMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Sets the {@link KMeansMode engine} used for the clustering process
+     *
+     * @param mode A {@link KMeansMode}: The engine
+     * @return This {@link KMeansConfig}
+     */
+    public KMeansConfig withMode(KMeansMode mode) {
+        if (mode == null) {
+            throw new IllegalArgumentException("Mode must not be null!");
+        }
+        this.mode = mode;
+        return this;
+    }
+
+    /**
+     * Returns the number of threads used by {@link KMeansMode#PARALLEL} and
+     * {@link KMeansInitialization#K_MEANS_PARALLEL}
+     *
+     * @return An {@link Integer int}: The number of threads, the number of available processors by default
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Sets the number of threads used by {@link KMeansMode#PARALLEL} and {@link KMeansInitialization#K_MEANS_PARALLEL}
+     *
+     * @param threads An {@link Integer int}: The number of threads, at least 1
+     * @return This {@link KMeansConfig}
+     */
+    public KMeansConfig withThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is required! Actual value: " + threads);
+        }
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * Returns the {@link KMeansInitialization method} used for picking the starting centroids
+     *
+     * @return A {@link KMeansInitialization}: The method, {@link KMeansInitialization#K_MEANS_PLUS_PLUS} by default
+     */
+    public KMeansInitialization getInitialization() {
+        return initialization;
+    }
+
+    /**
+     * Sets the {@link KMeansInitialization method} used for picking the starting centroids
+     *
+     * @param initialization A {@link KMeansInitialization}: The method
+     * @return This {@link KMeansConfig}
+     */
+    public KMeansConfig withInitialization(KMeansInitialization initialization) {
+        if (initialization == null) {
+            throw new IllegalArgumentException("Initialization must not be null!");
+        }
+        this.initialization = initialization;
+        return this;
+    }
+
+    /**
+     * Returns the number of pixels drawn for each batch of {@link KMeansMode#MINI_BATCH}
+     *
+     * @return An {@link Integer int}: The batch size, 1024 by default
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Sets the number of pixels drawn for each batch of {@link KMeansMode#MINI_BATCH}
+     *
+     * @param batchSize An {@link Integer int}: The batch size, at least 1
+     * @return This {@link KMeansConfig}
+     */
+    public KMeansConfig withBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1! Actual value: " + batchSize);
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Returns the maximum number of batches drawn by {@link KMeansMode#MINI_BATCH}
+     *
+     * @return An {@link Integer int}: The number of batches, 100 by default
+     */
+    public int getBatchIterations() {
+        return batchIterations;
+    }
+
+    /**
+     * Sets the maximum number of batches drawn by {@link KMeansMode#MINI_BATCH}
+     *
+     * @param batchIterations An {@link Integer int}: The number of batches, at least 1
+     * @return This {@link KMeansConfig}
+     */
+    public KMeansConfig withBatchIterations(int batchIterations) {
+        if (batchIterations < 1) {
+            throw new IllegalArgumentException("At least one batch is required! Actual value: " + batchIterations);
+        }
+        this.batchIterations = batchIterations;
+        return this;
+    }
+
+    /**
+     * Returns the {@link ConvergencePolicy} deciding when the clustering process ends
+     *
+     * @return A {@link ConvergencePolicy}: The policy, a default {@link KMeansConvergence} by default
+     */
+    public ConvergencePolicy getConvergence() {
+        return convergence;
+    }
+
+    /**
+     * Sets the {@link ConvergencePolicy} deciding when the clustering process ends
+     *
+     * @param convergence A {@link ConvergencePolicy}: The policy
+     * @return This {@link KMeansConfig}
+     */
+    public KMeansConfig withConvergence(ConvergencePolicy convergence) {
+        if (convergence == null) {
+            throw new IllegalArgumentException("Convergence policy must not be null!");
+        }
+        this.convergence = convergence;
+        return this;
+    }
+
+    /**
+     * Returns the {@link ClusteringColorSpace color space} the distances between colors are measured in
+     *
+     * @return A {@link ClusteringColorSpace}: The color space, {@link ClusteringColorSpace#RGB} by default
+     */
+    public ClusteringColorSpace getColorSpace() {
+        return colorSpace;
+    }
+
+    /**
+     * Sets the {@link ClusteringColorSpace color space} the distances between colors are measured in
+     *
+     * @param colorSpace A {@link ClusteringColorSpace}: The color space
+     * @return This {@link KMeansConfig}
+     */
+    public KMeansConfig withColorSpace(ClusteringColorSpace colorSpace) {
+        if (colorSpace == null) {
+            throw new IllegalArgumentException("Color space must not be null!");
+        }
+        this.colorSpace = colorSpace;
+        return this;
+    }
+
+    /**
+     * Returns the number of independent runs, of which the one with the lowest Sum of Squared Errors is kept
+     *
+     * @return An {@link Integer int}: The number of runs, 1 by default
+     */
+    public int getRestarts() {
+        return restarts;
+    }
+
+    /**
+     * Sets the number of independent runs, of which the one with the lowest Sum of Squared Errors is kept. The runs
+     * start from different centroids and are spread over {@link #getThreads() several threads}, see
+     * {@link MultiRestartKMeans}.
+     *
+     * @param restarts An {@link Integer int}: The number of runs, at least 1
+     * @return This {@link KMeansConfig}
+     */
+    public KMeansConfig withRestarts(int restarts) {
+        if (restarts < 1) {
+            throw new IllegalArgumentException("At least one run is required! Actual value: " + restarts);
+        }
+        this.restarts = restarts;
+        return this;
+    }
+
+    /**
+     * Returns the seed the random values are drawn from
+     *
+     * @return A {@link Long}: The seed, {@code null} by default for different values on every run
+     */
+    public Long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Sets the seed the random values are drawn from. The same seed and settings yield the same palette for the same
+     * image, regardless of the number of threads, unless the {@link KMeansConvergence#getTimeBudget() time budget}
+     * ends a run early.
+     *
+     * @param seed A {@link Long long}: The seed
+     * @return This {@link KMeansConfig}
+     */
+    public KMeansConfig withSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Returns the centroids the clustering process starts from
+     *
+     * @return A {@link List} of {@link Point3D}: The starting centroids in sRGB, empty by default
+     */
+    public List<Point3D> getInitialCentroids() {
+        return initialCentroids;
+    }
+
+    /**
+     * Sets the centroids the clustering process starts from instead of picking them with the
+     * {@link #getInitialization() initialization} method, e.g. the palette of an earlier run on the same or a
+     * slightly edited image. Started close to their final position, the centroids usually settle within two or three
+     * iterations. <br>
+     * If fewer centroids than requested are passed, the others are picked with
+     * {@link KMeans#kMeansPlusPlus(ColorData, int) K-Means++}, if more are passed, only the first ones are used. The
+     * colors are given in sRGB, also if the {@link #getColorSpace() color space} is {@link ClusteringColorSpace#LAB}.
+     *
+     * @param initialCentroids A {@link List} of {@link Point3D}: The starting centroids in sRGB, empty for picking all
+     *                         of them with the initialization method
+     * @return This {@link KMeansConfig}
+     */
+    public KMeansConfig withInitialCentroids(List<Point3D> initialCentroids) {
+        if (initialCentroids == null) {
+            throw new IllegalArgumentException("Starting centroids must not be null!");
+        }
+        this.initialCentroids = Collections.unmodifiableList(new ArrayList<>(initialCentroids));
+        return this;
+    }
+
+    /**
+     * Copies all settings into a new {@link KMeansConfig}, e.g. for changing the number of threads of runs started
+     * from this one without changing the settings passed by the caller
+     *
+     * @return A {@link KMeansConfig} - The copy
+     */
+    KMeansConfig copy() {
+        KMeansConfig copy = new KMeansConfig();
+        copy.mode = mode;
+        copy.threads = threads;
+        copy.initialization = initialization;
+        copy.batchSize = batchSize;
+        copy.batchIterations = batchIterations;
+        copy.convergence = convergence;
+        copy.colorSpace = colorSpace;
+        copy.restarts = restarts;
+        copy.seed = seed;
+        copy.initialCentroids = initialCentroids;
+        return copy;
+    }
+}
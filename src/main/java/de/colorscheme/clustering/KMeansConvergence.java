@@ -0,0 +1,163 @@
+package de.colorscheme.clustering;
+
+/**
+ * The default {@link ConvergencePolicy}. A run ends as soon as one of these criteria is met, checked in this order:
+ * <ol>
+ *     <li>
+ *         {@link KMeansStopReason#SSE_CONVERGED}: the Sum of Squared Errors improved by no more than the
+ *         {@link #getRelativeTolerance() relative tolerance} times its previous value.
+ *     </li>
+ *     <li>
+ *         {@link KMeansStopReason#ASSIGNMENTS_STABLE}: no more than the {@link #getChangedShare() allowed share} of the
+ *         pixels changed their cluster.
+ *     </li>
+ *     <li>
+ *         {@link KMeansStopReason#MAX_ITERATIONS}: the {@link #getMaxIterations() maximum number of iterations} was
+ *         reached.
+ *     </li>
+ *     <li>
+ *         {@link KMeansStopReason#DEADLINE}: the {@link #getTimeBudget() time budget} was used up.
+ *     </li>
+ * </ol>
+ * By default, a run continues as long as the Sum of Squared Errors decreases at all and any pixel changes its cluster,
+ * without an iteration cap or a time budget. <br>
+ * All settings can be changed by chaining the {@code with...} methods, e.g.
+ * <pre>{@code new KMeansConvergence().withRelativeTolerance(1e-4).withTimeBudget(200)}</pre>
+ *
+ * @author &copy; 2024 Elisa Johanna Woelk | elisa-johanna.woelk@outlook.de | @fenris_22127
+ * @version 1.0
+ * @since 18.0.1
+ */
+public class KMeansConvergence implements ConvergencePolicy {
+
+    /**
+     * The improvement of the Sum of Squared Errors, relative to its previous value, below which the run ends
+     */
+    private double relativeTolerance = 0.0;
+    /**
+     * The share of the pixels changing their cluster in an iteration, below which the run ends
+     */
+    private double changedShare = 0.0;
+    /**
+     * The maximum number of iterations
+     */
+    private int maxIterations = Integer.MAX_VALUE;
+    /**
+     * The milliseconds after which the run ends, 0 for no time budget
+     */
+    private long timeBudget = 0;
+
+    @Override
+    public KMeansStopReason check(int iterations, double previousSumSquaredErrors, double sumSquaredErrors,
+                                  double changedShare, long elapsedMillis) {
+        if (previousSumSquaredErrors - sumSquaredErrors <= relativeTolerance * previousSumSquaredErrors) {
+            return KMeansStopReason.SSE_CONVERGED;
+        }
+        if (changedShare <= this.changedShare) {
+            return KMeansStopReason.ASSIGNMENTS_STABLE;
+        }
+        if (iterations >= maxIterations) {
+            return KMeansStopReason.MAX_ITERATIONS;
+        }
+        if (timeBudget > 0 && elapsedMillis >= timeBudget) {
+            return KMeansStopReason.DEADLINE;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the improvement of the Sum of Squared Errors, relative to its previous value, below which the run ends
+     *
+     * @return A {@link Double double}: The relative tolerance, 0 by default
+     */
+    public double getRelativeTolerance() {
+        return relativeTolerance;
+    }
+
+    /**
+     * Sets the improvement of the Sum of Squared Errors, relative to its previous value, below which the run ends
+     *
+     * @param relativeTolerance A {@link Double double}: The relative tolerance, at least 0 and less than 1
+     * @return This {@link KMeansConvergence}
+     */
+    public KMeansConvergence withRelativeTolerance(double relativeTolerance) {
+        if (!(relativeTolerance >= 0 && relativeTolerance < 1)) {
+            throw new IllegalArgumentException(
+                    "Relative tolerance must be between 0 and 1! Actual value: " + relativeTolerance);
+        }
+        this.relativeTolerance = relativeTolerance;
+        return this;
+    }
+
+    /**
+     * Returns the share of the pixels changing their cluster in an iteration, below which the run ends
+     *
+     * @return A {@link Double double}: The share of changed pixels, 0 by default
+     */
+    public double getChangedShare() {
+        return changedShare;
+    }
+
+    /**
+     * Sets the share of the pixels changing their cluster in an iteration, below which the run ends
+     *
+     * @param changedShare A {@link Double double}: The share of changed pixels, at least 0 and less than 1
+     * @return This {@link KMeansConvergence}
+     */
+    public KMeansConvergence withChangedShare(double changedShare) {
+        if (!(changedShare >= 0 && changedShare < 1)) {
+            throw new IllegalArgumentException(
+                    "Share of changed pixels must be between 0 and 1! Actual value: " + changedShare);
+        }
+        this.changedShare = changedShare;
+        return this;
+    }
+
+    /**
+     * Returns the maximum number of iterations
+     *
+     * @return An {@link Integer int}: The maximum number of iterations, {@link Integer#MAX_VALUE} by default
+     */
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    /**
+     * Sets the maximum number of iterations
+     *
+     * @param maxIterations An {@link Integer int}: The maximum number of iterations, at least 1
+     * @return This {@link KMeansConvergence}
+     */
+    public KMeansConvergence withMaxIterations(int maxIterations) {
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException("At least one iteration is required! Actual value: " + maxIterations);
+        }
+        this.maxIterations = maxIterations;
+        return this;
+    }
+
+    /**
+     * Returns the milliseconds after which the run ends
+     *
+     * @return A {@link Long long}: The time budget in milliseconds, 0 for no time budget, which is the default
+     */
+    public long getTimeBudget() {
+        return timeBudget;
+    }
+
+    /**
+     * Sets the milliseconds after which the run ends and the best centroids found so far are kept. The time is
+     * measured from the start of the run, including the initialization of the centroids. The initialization and the
+     * iteration running when the time budget is used up are finished first.
+     *
+     * @param timeBudget A {@link Long long}: The time budget in milliseconds, 0 for no time budget
+     * @return This {@link KMeansConvergence}
+     */
+    public KMeansConvergence withTimeBudget(long timeBudget) {
+        if (timeBudget < 0) {
+            throw new IllegalArgumentException("Time budget must not be negative! Actual value: " + timeBudget);
+        }
+        this.timeBudget = timeBudget;
+        return this;
+    }
+}
@@ -0,0 +1,27 @@
+package de.colorscheme.clustering;
+
+/**
+ * The available methods for picking the starting centroids in {@link KMeans}
+ *
+ * @author &copy; 2024 Elisa Johanna Woelk | elisa-johanna.woelk@outlook.de | @fenris_22127
+ * @version 1.0
+ * @since 18.0.1
+ */
+public enum KMeansInitialization {
+    /**
+     * {@link KMeans#kMeansPlusPlus(ColorData, int) K-Means++}: picks one centroid after another by roulette-wheel
+     * selection over all pixels
+     */
+    K_MEANS_PLUS_PLUS,
+    /**
+     * {@link KMeansParallelInitializer K-Means||}: oversamples candidates in a few passes over all pixels and reduces
+     * them to the number of centroids. Much faster than {@link #K_MEANS_PLUS_PLUS} for a high number of centroids.
+     */
+    K_MEANS_PARALLEL,
+    /**
+     * {@link WuQuantizer Wu}: uses the palette of the Wu quantizer as the starting centroids. Needs a single pass over
+     * all pixels and no random values, and the centroids start so close to their final position that only a few
+     * iterations are needed.
+     */
+    WU
+}
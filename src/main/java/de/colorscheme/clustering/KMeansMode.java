@@ -0,0 +1,48 @@
+package de.colorscheme.clustering;
+
+/**
+ * The available engines for running the KMeans clustering process in {@link KMeans}
+ *
+ * @author &copy; 2024 Elisa Johanna Woelk | elisa-johanna.woelk@outlook.de | @fenris_22127
+ * @version 1.0
+ * @since 18.0.1
+ */
+public enum KMeansMode {
+    /**
+     * Assigns the pixels and recomputes the centroids on the calling thread
+     */
+    SEQUENTIAL,
+    /**
+     * Splits the pixels into chunks that are assigned and summed up on a {@link java.util.concurrent.ForkJoinPool
+     * ForkJoinPool} with {@link KMeansConfig#getThreads() several threads}
+     */
+    PARALLEL,
+    /**
+     * Keeps an upper and a lower bound of the distances of every pixel and skips the distance computations the
+     * triangle inequality proves to be unnecessary. Pays off for a high number of centroids.
+     */
+    HAMERLY,
+    /**
+     * Moves the centroids towards random {@link KMeansConfig#getBatchSize() batches} of pixels for a
+     * {@link KMeansConfig#getBatchIterations() limited number of batches}, so time and memory don't depend on the size
+     * of the image. Gives an approximate result.
+     */
+    MINI_BATCH,
+    /**
+     * Assigns blocks of pixels with a {@link VectorKMeans kernel} comparing several pixels against a centroid per
+     * instruction, if the JVM provides the Vector API, and one pixel at a time otherwise
+     */
+    VECTOR,
+    /**
+     * Sorts the pixels into a {@link KdTreeKMeans KD-tree} once and assigns whole boxes of similar colors to a
+     * centroid at a time, dropping the centroids that are farther from the box than another one. Gives the same
+     * result as {@link #SEQUENTIAL}.
+     */
+    KD_TREE,
+    /**
+     * Divides the colors into a {@link GridKMeans grid} of cells and compares each pixel only against the few
+     * centroids that can be the nearest one for its cell, so an iteration hardly gets slower with more centroids.
+     * Gives the same result as {@link #SEQUENTIAL}.
+     */
+    GRID
+}
@@ -0,0 +1,336 @@
+package de.colorscheme.clustering;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The {@link KMeansInitialization#K_MEANS_PARALLEL K-Means||} initialization (scalable K-Means++), which picks the
+ * starting centroids in a few passes over the pixels instead of two passes per centroid.
+ * <ol>
+ *     <li>
+ *         Picks a {@link ColorData#randomIndexFromPoint3DList() random pixel} as the first candidate.
+ *     </li>
+ *     <li>
+ *         In each of {@link #ROUNDS} rounds, every pixel becomes a candidate with a probability proportional to its
+ *         weight times its squared distance to the closest candidate so far, so that about
+ *         {@link #OVERSAMPLING} times the number of centroids are picked per round, all in the same pass.
+ *     </li>
+ *     <li>
+ *         The distance of every pixel to its closest candidate is kept between the rounds and only compared to the
+ *         candidates picked in the latest round, so no distance is computed twice. These comparisons take most of
+ *         the time and are split into chunks of {@link #CHUNK_SIZE} pixels, which are processed on
+ *         {@link KMeansConfig#getThreads() several threads} like in {@link ParallelKMeans}. Drawing the candidates
+ *         stays on one thread, so the random values are drawn in the same order as without threads.
+ *     </li>
+ *     <li>
+ *         Each candidate is weighted by the number of pixels closest to it and the candidates are reduced to the
+ *         number of centroids by a weighted K-Means++ over the candidates only.
+ *     </li>
+ * </ol>
+ * The chunks and the order in which their costs are added only depend on the number of pixels, so the picked
+ * centroids do not depend on the number of threads.
+ *
+ * @author &copy; 2024 Elisa Johanna Woelk | elisa-johanna.woelk@outlook.de | @fenris_22127
+ * @version 1.0
+ * @since 18.0.1
+ */
+final class KMeansParallelInitializer {
+
+    /**
+     * The number of sampling rounds
+     */
+    private static final int ROUNDS = 5;
+
+    /**
+     * The expected number of candidates picked per round, as a multiple of the number of centroids
+     */
+    private static final int OVERSAMPLING = 2;
+
+    /**
+     * The maximum number of pixels compared to the candidates by a single task
+     */
+    private static final int CHUNK_SIZE = 8192;
+
+    /**
+     * Private constructor to hide the public one
+     */
+    private KMeansParallelInitializer() {
+    }
+
+    /**
+     * Picks the starting centroids and adds them to the {@link ColorData#getCentroids() list of centroids}
+     *
+     * @param colorData      The instance used for all processes for the currently inspected image
+     * @param totalCentroids The number of centroids to be picked
+     * @param threads        The number of threads comparing the pixels to the candidates
+     */
+    static void initialize(ColorData colorData, int totalCentroids, int threads) {
+        ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        try {
+            initialize(colorData, totalCentroids, pool);
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Picks the starting centroids, comparing the pixels to the candidates on the passed pool
+     *
+     * @param colorData      The instance used for all processes for the currently inspected image
+     * @param totalCentroids The number of centroids to be picked
+     * @param pool           The {@link ForkJoinPool} comparing the pixels to the candidates, or {@code null} for
+     *                       comparing them on the calling thread
+     */
+    private static void initialize(ColorData colorData, int totalCentroids, ForkJoinPool pool) {
+        PixelStore pixels = colorData.getPixels();
+        Random random = colorData.getRandom();
+        int n = pixels.size();
+
+        //squared distance of each pixel to its closest candidate and the index of that candidate
+        double[] minDist = new double[n];
+        int[] closest = new int[n];
+        Arrays.fill(minDist, Double.MAX_VALUE);
+
+        int[] candidates = new int[Math.max(16, totalCentroids * OVERSAMPLING * ROUNDS + 1)];
+        int candidateCount = 0;
+        candidates[candidateCount++] = colorData.randomIndexFromPoint3DList();
+        double cost = updateDistances(pool, pixels, candidates, 0, candidateCount, minDist, closest);
+
+        double expected = (double) totalCentroids * OVERSAMPLING;
+        for (int round = 0; round < ROUNDS && cost > 0; round++) {
+            int roundStart = candidateCount;
+            for (int p = 0; p < n; p++) {
+                double probability = expected * pixels.getWeight(p) * minDist[p] / cost;
+                if (minDist[p] > 0 && random.nextDouble() < probability) {
+                    if (candidateCount == candidates.length) {
+                        candidates = Arrays.copyOf(candidates, candidates.length * 2);
+                    }
+                    candidates[candidateCount++] = p;
+                }
+            }
+            cost = updateDistances(pool, pixels, candidates, roundStart, candidateCount, minDist, closest);
+        }
+
+        //weight each candidate by the pixels closest to it
+        long[] candidateWeights = new long[candidateCount];
+        for (int p = 0; p < n; p++) {
+            candidateWeights[closest[p]] += pixels.getWeight(p);
+        }
+
+        for (int index : reduce(pixels, candidates, candidateWeights, candidateCount, totalCentroids, random)) {
+            colorData.getIndicesOfCentroids().add(index);
+            colorData.getCentroids().add(colorData.getPixel(index));
+        }
+    }
+
+    /**
+     * Compares every pixel to the candidates picked in the latest round and updates its distance to its closest
+     * candidate
+     *
+     * @param pool       The {@link ForkJoinPool} running the comparisons, or {@code null} for the calling thread
+     * @param pixels     The pixels of the image
+     * @param candidates The indices of all candidates
+     * @param from       The index in {@code candidates} of the first candidate picked in the latest round
+     * @param to         The number of candidates
+     * @param minDist    The squared distance of each pixel to its closest candidate
+     * @param closest    The index in {@code candidates} of each pixel's closest candidate
+     * @return A {@link Double double} - The weighted sum of all squared distances to the closest candidate
+     */
+    private static double updateDistances(ForkJoinPool pool, PixelStore pixels, int[] candidates, int from, int to,
+                                          double[] minDist, int[] closest) {
+        UpdateTask task = new UpdateTask(pixels, candidates, from, to, minDist, closest, 0, pixels.size(),
+                pool != null);
+        return pool == null ? task.compute() : pool.invoke(task);
+    }
+
+    /**
+     * Reduces the candidates to the number of centroids with a K-Means++ over the candidates, where each candidate
+     * is picked with a probability proportional to its weight times its squared distance to the closest candidate
+     * already picked. If fewer distinct candidates than centroids exist, the picked candidates are repeated in turn,
+     * like {@link ColorData#calculateWeighedCentroid()} repeats the centroids picked by K-Means++.
+     *
+     * @param pixels           The pixels of the image
+     * @param candidates       The indices of all candidates
+     * @param candidateWeights The number of pixels closest to each candidate
+     * @param candidateCount   The number of candidates
+     * @param totalCentroids   The number of centroids to be picked
+     * @param random           The {@link Random} instance used to pick the candidates
+     * @return An {@link Integer int} array - The indices of the pixels picked as centroids
+     */
+    private static int[] reduce(PixelStore pixels, int[] candidates, long[] candidateWeights, int candidateCount,
+                                int totalCentroids, Random random) {
+        int[] picked = new int[totalCentroids];
+        double[] minDist = new double[candidateCount];
+        Arrays.fill(minDist, Double.MAX_VALUE);
+
+        int pickedCount = 0;
+        int next = pickWeighted(candidateWeights, null, candidateCount, random);
+        while (next >= 0 && pickedCount < totalCentroids) {
+            picked[pickedCount++] = candidates[next];
+            for (int c = 0; c < candidateCount; c++) {
+                minDist[c] = Math.min(minDist[c], squaredDistance(pixels, candidates[c], candidates[next]));
+            }
+            next = pickWeighted(candidateWeights, minDist, candidateCount, random);
+        }
+        //every candidate has a weight, so at least one is picked unless the image has no pixels
+        for (int i = pickedCount; i < totalCentroids && pickedCount > 0; i++) {
+            picked[i] = picked[i % pickedCount];
+        }
+        return picked;
+    }
+
+    /**
+     * Picks a candidate with a probability proportional to its weight, times its squared distance if distances are
+     * passed
+     *
+     * @param weights        The weight of each candidate
+     * @param minDist        The squared distance of each candidate to the closest picked candidate, or {@code null}
+     * @param candidateCount The number of candidates
+     * @param random         The {@link Random} instance used to pick the candidate
+     * @return An {@link Integer int} - The index of the picked candidate, or -1 if all candidates have a probability
+     * of 0
+     */
+    private static int pickWeighted(long[] weights, double[] minDist, int candidateCount, Random random) {
+        double total = 0.0;
+        for (int c = 0; c < candidateCount; c++) {
+            total += weights[c] * (minDist == null ? 1.0 : minDist[c]);
+        }
+        if (total <= 0) {
+            return -1;
+        }
+        double threshold = random.nextDouble() * total;
+        double currentSum = 0.0;
+        int last = -1;
+        for (int c = 0; c < candidateCount; c++) {
+            double fitness = weights[c] * (minDist == null ? 1.0 : minDist[c]);
+            if (fitness > 0) {
+                currentSum += fitness;
+                last = c;
+                if (currentSum > threshold) {
+                    return c;
+                }
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Calculates the squared Euclidean Distance between two pixels
+     *
+     * @param pixels The pixels of the image
+     * @param p      The index of the first pixel
+     * @param q      The index of the second pixel
+     * @return A {@link Double double} - The squared distance between the pixels
+     */
+    private static double squaredDistance(PixelStore pixels, int p, int q) {
+        double dx = (double) pixels.getX(p) - pixels.getX(q);
+        double dy = (double) pixels.getY(p) - pixels.getY(q);
+        double dz = (double) pixels.getZ(p) - pixels.getZ(q);
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * Compares the pixels of a range to the candidates picked in the latest round and returns the cost of the
+     * range. <br>
+     * Ranges larger than {@link #CHUNK_SIZE} are split in half. Without a pool, both halves are compared on the
+     * calling thread instead of forking one of them, which would hand it to the
+     * {@link ForkJoinPool#commonPool() common pool}. The costs are added in the same order either way.
+     */
+    private static final class UpdateTask extends RecursiveTask<Double> {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The pixels of the image
+         */
+        private final transient PixelStore pixels;
+        /**
+         * The indices of all candidates
+         */
+        private final int[] candidates;
+        /**
+         * The index in {@link #candidates} of the first candidate picked in the latest round
+         */
+        private final int firstCandidate;
+        /**
+         * The number of candidates
+         */
+        private final int candidateCount;
+        /**
+         * The squared distance of each pixel to its closest candidate
+         */
+        private final double[] minDist;
+        /**
+         * The index in {@link #candidates} of each pixel's closest candidate
+         */
+        private final int[] closest;
+        /**
+         * The index of the first pixel of the range
+         */
+        private final int from;
+        /**
+         * The index after the last pixel of the range
+         */
+        private final int to;
+        /**
+         * Whether the task runs on a {@link ForkJoinPool} and may fork one half of its range
+         */
+        private final boolean forking;
+
+        UpdateTask(PixelStore pixels, int[] candidates, int firstCandidate, int candidateCount, double[] minDist,
+                   int[] closest, int from, int to, boolean forking) {
+            this.pixels = pixels;
+            this.candidates = candidates;
+            this.firstCandidate = firstCandidate;
+            this.candidateCount = candidateCount;
+            this.minDist = minDist;
+            this.closest = closest;
+            this.from = from;
+            this.to = to;
+            this.forking = forking;
+        }
+
+        @Override
+        protected Double compute() {
+            if (to - from > CHUNK_SIZE) {
+                int mid = (from + to) >>> 1;
+                UpdateTask left = new UpdateTask(pixels, candidates, firstCandidate, candidateCount, minDist, closest,
+                        from, mid, forking);
+                UpdateTask right = new UpdateTask(pixels, candidates, firstCandidate, candidateCount, minDist,
+                        closest, mid, to, forking);
+                if (!forking) {
+                    double leftCost = left.compute();
+                    return leftCost + right.compute();
+                }
+                left.fork();
+                double rightCost = right.compute();
+                return left.join() + rightCost;
+            }
+            return updateRange();
+        }
+
+        /**
+         * Compares every pixel of the range to the candidates picked in the latest round
+         *
+         * @return A {@link Double double} - The weighted sum of the squared distances of the range
+         */
+        private double updateRange() {
+            double cost = 0.0;
+            for (int p = from; p < to; p++) {
+                for (int c = firstCandidate; c < candidateCount; c++) {
+                    double dist = squaredDistance(pixels, p, candidates[c]);
+                    if (dist < minDist[p]) {
+                        minDist[p] = dist;
+                        closest[p] = c;
+                    }
+                }
+                cost += minDist[p] * pixels.getWeight(p);
+            }
+            return cost;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package de.colorscheme.clustering;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The statistics of one run of {@link KMeans#kMeans(ColorData, int, KMeansConfig)}: the number of iterations, the Sum
+ * of Squared Errors after each iteration, the number of distance computations each iteration skipped, which shows
+ * the gain of engines like {@link KMeansMode#HAMERLY}, and the {@link KMeansStopReason criterion} that ended the run.
+ *
+ * @author &copy; 2024 Elisa Johanna Woelk | elisa-johanna.woelk@outlook.de | @fenris_22127
+ * @version 1.0
+ * @since 18.0.1
+ */
+public class KMeansReport {
+
+    /**
+     * The number of distance computations of an iteration that computes the distance of every pixel to every centroid
+     */
+    private final long distancesPerIteration;
+    /**
+     * The number of distance computations skipped in each iteration
+     */
+    private final List<Long> skippedDistances = new ArrayList<>();
+    /**
+     * The Sum of Squared Errors after each iteration
+     */
+    private final List<Double> sumSquaredErrors = new ArrayList<>();
+    /**
+     * The criterion that ended the run
+     */
+    private KMeansStopReason stopReason;
+
+    /**
+     * Creates an empty report
+     *
+     * @param distancesPerIteration The number of pixels times the number of centroids
+     */
+    KMeansReport(long distancesPerIteration) {
+        this.distancesPerIteration = distancesPerIteration;
+    }
+
+    /**
+     * Records an iteration
+     *
+     * @param skipped         The number of distance computations skipped in the iteration
+     * @param sumSquaredError The Sum of Squared Errors after the iteration
+     */
+    void addIteration(long skipped, double sumSquaredError) {
+        skippedDistances.add(skipped);
+        sumSquaredErrors.add(sumSquaredError);
+    }
+
+    /**
+     * Records the criterion that ended the run
+     *
+     * @param stopReason The {@link KMeansStopReason criterion}
+     */
+    void setStopReason(KMeansStopReason stopReason) {
+        this.stopReason = stopReason;
+    }
+
+    /**
+     * Returns the criterion that ended the run
+     *
+     * @return A {@link KMeansStopReason}: The criterion, {@code null} if the run hasn't ended yet
+     */
+    public KMeansStopReason getStopReason() {
+        return stopReason;
+    }
+
+    /**
+     * Returns the number of iterations run
+     *
+     * @return An {@link Integer int}: The number of iterations
+     */
+    public int getIterations() {
+        return skippedDistances.size();
+    }
+
+    /**
+     * Returns the number of distance computations of an iteration that computes the distance of every pixel to every
+     * centroid
+     *
+     * @return A {@link Long long}: The number of pixels times the number of centroids
+     */
+    public long getDistancesPerIteration() {
+        return distancesPerIteration;
+    }
+
+    /**
+     * Returns the number of distance computations skipped in each iteration
+     *
+     * @return An unmodifiable {@link List} of {@link Long Longs}: One entry per iteration
+     */
+    public List<Long> getSkippedDistances() {
+        return Collections.unmodifiableList(skippedDistances);
+    }
+
+    /**
+     * Returns the Sum of Squared Errors after each iteration
+     *
+     * @return An unmodifiable {@link List} of {@link Double Doubles}: One entry per iteration
+     */
+    public List<Double> getSumSquaredErrors() {
+        return Collections.unmodifiableList(sumSquaredErrors);
+    }
+
+    /**
+     * Returns the share of all distance computations of the run that were skipped
+     *
+     * @return A {@link Double double} between 0 and 1: The skipped distance computations divided by the distance
+     * computations of all iterations
+     */
+    public double getSkippedShare() {
+        if (getIterations() == 0 || distancesPerIteration == 0) {
+            return 0.0;
+        }
+        long skipped = 0;
+        for (long s : skippedDistances) {
+            skipped += s;
+        }
+        return (double) skipped / ((double) distancesPerIteration * getIterations());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("KMeansReport{iterations=%d, stopReason=%s, skippedDistances=%s, skippedShare=%.3f}",
+                getIterations(), stopReason, skippedDistances, getSkippedShare());
+    }
+}
@@ -0,0 +1,40 @@
+package de.colorscheme.clustering;
+
+/**
+ * One iteration of the KMeans clustering process as run by {@link KMeans#kMeans(ColorData, int, KMeansConfig)}:
+ * assigns every pixel to its nearest centroid, recomputes the centroids and returns the new Sum of Squared Errors. <br>
+ * Implementations may keep state between the iterations of one run and release it in {@link #close()}.
+ *
+ * @author &copy; 2024 Elisa Johanna Woelk | elisa-johanna.woelk@outlook.de | @fenris_22127
+ * @version 1.0
+ * @since 18.0.1
+ */
+interface KMeansStep extends AutoCloseable {
+
+    /**
+     * Runs one iteration of the clustering process
+     *
+     * @param colorData      A {@link ColorData} object: The instance used for all processes for the currently
+     *                       inspected image, its {@link ColorData#getCentroids() centroids} are updated in place
+     * @param totalCentroids An {@link Integer int}: The number of centroids
+     * @return A {@link Double double} - The Sum of Squared Errors around the recomputed centroids
+     */
+    double iterate(ColorData colorData, int totalCentroids);
+
+    /**
+     * Returns the number of pixel-to-centroid distance computations the last iteration skipped, compared to computing
+     * the distance of every pixel to every centroid
+     *
+     * @return A {@link Long long} - The number of skipped distance computations, 0 by default
+     */
+    default long getSkippedDistances() {
+        return 0;
+    }
+
+    /**
+     * Releases all resources held for the run. Does nothing by default.
+     */
+    @Override
+    default void close() {
+    }
+}
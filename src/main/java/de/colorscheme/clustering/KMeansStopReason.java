@@ -0,0 +1,29 @@
+package de.colorscheme.clustering;
+
+/**
+ * The criteria a {@link ConvergencePolicy} can end a run of {@link KMeans#kMeans(ColorData, int, KMeansConfig)} with,
+ * as reported by {@link KMeansReport#getStopReason()}
+ *
+ * @author &copy; 2024 Elisa Johanna Woelk | elisa-johanna.woelk@outlook.de | @fenris_22127
+ * @version 1.0
+ * @since 18.0.1
+ */
+public enum KMeansStopReason {
+    /**
+     * The Sum of Squared Errors improved by less than the {@link KMeansConvergence#getRelativeTolerance() relative
+     * tolerance}, or, for {@link KMeansMode#MINI_BATCH}, the smoothed Sum of Squared Errors stopped improving
+     */
+    SSE_CONVERGED,
+    /**
+     * No more than the {@link KMeansConvergence#getChangedShare() allowed share} of the pixels changed their cluster
+     */
+    ASSIGNMENTS_STABLE,
+    /**
+     * The {@link KMeansConvergence#getMaxIterations() maximum number of iterations} was reached
+     */
+    MAX_ITERATIONS,
+    /**
+     * The {@link KMeansConvergence#getTimeBudget() time budget} was used up, the best centroids found so far are kept
+     */
+    DEADLINE
+}
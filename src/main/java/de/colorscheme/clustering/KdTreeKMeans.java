@@ -0,0 +1,295 @@
+package de.colorscheme.clustering;
+
+import java.util.Arrays;
+
+/**
+ * The {@link KMeansMode#KD_TREE filtering} engine for the KMeans clustering process, after Kanungo et al. <br>
+ * Before the first iteration, the pixels are sorted into a KD-tree: Every node stands for a box of the color space and
+ * the pixels inside it, split in the middle of its widest channel until at most {@link #LEAF_SIZE} pixels or a
+ * single color is left. <br>
+ * Each iteration then walks the tree with a list of candidate centroids. A candidate is dropped for a whole box as
+ * soon as the candidate closest to the middle of the box is closer to every corner of it, and once a single candidate
+ * is left, all pixels of the box belong to it without computing any distance. Only the pixels of leaves with several
+ * candidates left are compared against them one by one. <br>
+ * The candidates are dropped by the {@link CandidateFilter}, so every pixel ends up in the same cluster as with
+ * {@link KMeansMode#SEQUENTIAL}, and the centroids are recomputed from the pixels in the same order, so both engines
+ * return exactly the same palette. Pays off for images with large areas of similar colors and for a high number of
+ * centroids.
+ *
+ * @author &copy; 2024 Elisa Johanna Woelk | elisa-johanna.woelk@outlook.de | @fenris_22127
+ * @version 1.0
+ * @since 18.0.1
+ */
+final class KdTreeKMeans implements KMeansStep {
+
+    /**
+     * The maximum number of pixels of a leaf, unless all of them have the same color
+     */
+    private static final int LEAF_SIZE = 32;
+    /**
+     * The indices of the pixels, ordered so that the pixels of every node are next to each other
+     */
+    private int[] order;
+    /**
+     * The red, green and blue values of the pixels in the same order as {@link #order}, so building and walking the
+     * tree reads them one after another
+     */
+    private float[][] channels;
+    /**
+     * The boxes of the nodes around their pixels, six values per node as described in {@link CandidateFilter}
+     */
+    private float[] bounds;
+    /**
+     * The index of the first pixel of each node in {@link #order}
+     */
+    private int[] from;
+    /**
+     * The index after the last pixel of each node in {@link #order}
+     */
+    private int[] to;
+    /**
+     * The index of the right child of each node, or -1 for a leaf. The left child always directly follows its parent.
+     */
+    private int[] right;
+    /**
+     * The number of nodes of the tree
+     */
+    private int totalNodes = 0;
+    /**
+     * The candidate lists of every depth of the tree, reused in every iteration
+     */
+    private int[][] candidates;
+    /**
+     * The number of distances between a pixel and a centroid computed in the last iteration
+     */
+    private long computed = 0;
+    /**
+     * The number of distances between a pixel and a centroid computed in the last iteration if none had been skipped
+     */
+    private long total = 0;
+
+    @Override
+    public double iterate(ColorData colorData, int totalCentroids) {
+        PixelStore pixels = colorData.getPixels();
+        if (order == null) {
+            buildTree(pixels);
+        }
+        if (candidates[0].length != totalCentroids) {
+            for (int depth = 0; depth < candidates.length; depth++) {
+                candidates[depth] = new int[totalCentroids];
+            }
+        }
+        for (int i = 0; i < totalCentroids; i++) {
+            candidates[0][i] = i;
+        }
+
+        computed = 0;
+        total = (long) pixels.size() * totalCentroids;
+        if (totalNodes > 0) {
+            filter(colorData, KMeans.toArray(colorData.getCentroids()), 0, 0, totalCentroids);
+        }
+        return colorData.recomputeCentroids(totalCentroids);
+    }
+
+    @Override
+    public long getSkippedDistances() {
+        return total - computed;
+    }
+
+    /**
+     * Assigns the pixels of the passed node to the nearest of the passed candidates, dropping the candidates that are
+     * farther from the whole box of the node than another one
+     *
+     * @param colorData       The instance used for all processes for the currently inspected image
+     * @param centroids       The x, y and z coordinates of all centroids, one after another
+     * @param node            The index of the node
+     * @param depth           The depth of the node, the index of its candidate list in {@link #candidates}
+     * @param totalCandidates The number of candidates left for the node
+     */
+    private void filter(ColorData colorData, double[] centroids, int node, int depth, int totalCandidates) {
+        int[] current = candidates[depth];
+        if (totalCandidates == 1) {
+            assignAll(colorData, node, current[0]);
+            return;
+        }
+
+        int[] next = candidates[depth + 1];
+        int remaining = CandidateFilter.filter(centroids, current, totalCandidates, bounds, node, next);
+        if (remaining == 1) {
+            assignAll(colorData, node, next[0]);
+        } else if (right[node] < 0) {
+            assignLeaf(colorData, centroids, node, next, remaining);
+        } else {
+            filter(colorData, centroids, node + 1, depth + 1, remaining);
+            filter(colorData, centroids, right[node], depth + 1, remaining);
+        }
+    }
+
+    /**
+     * Assigns every pixel of the passed node to the passed centroid
+     *
+     * @param colorData  The instance used for all processes for the currently inspected image
+     * @param node       The index of the node
+     * @param centroidNo The number of the centroid
+     */
+    private void assignAll(ColorData colorData, int node, int centroidNo) {
+        for (int p = from[node]; p < to[node]; p++) {
+            colorData.setClusterNo(order[p], centroidNo);
+        }
+    }
+
+    /**
+     * Assigns every pixel of the passed leaf to the nearest of the passed candidates. If all pixels of the leaf have
+     * the same color, the nearest candidate is only searched once.
+     *
+     * @param colorData       The instance used for all processes for the currently inspected image
+     * @param centroids       The x, y and z coordinates of all centroids, one after another
+     * @param node            The index of the leaf
+     * @param current         The numbers of the candidates, in ascending order
+     * @param totalCandidates The number of candidates
+     */
+    private void assignLeaf(ColorData colorData, double[] centroids, int node, int[] current, int totalCandidates) {
+        boolean singleColor = CandidateFilter.isSingleColor(bounds, node);
+        int nearest = 0;
+        for (int p = from[node]; p < to[node]; p++) {
+            if (!singleColor || p == from[node]) {
+                nearest = CandidateFilter.nearest(centroids, current, totalCandidates,
+                        channels[0][p], channels[1][p], channels[2][p]);
+                computed += totalCandidates;
+            }
+            colorData.setClusterNo(order[p], nearest);
+        }
+    }
+
+    /**
+     * Sorts the pixels into the KD-tree
+     *
+     * @param pixels The pixels of the image
+     */
+    private void buildTree(PixelStore pixels) {
+        int size = pixels.size();
+        order = new int[size];
+        for (int p = 0; p < size; p++) {
+            order[p] = p;
+        }
+        channels = new float[][]{pixels.xs().clone(), pixels.ys().clone(), pixels.zs().clone()};
+        //grown by ensureCapacity if the colors are spread so unevenly that the tree needs more nodes
+        int capacity = 4 * size / LEAF_SIZE + 1;
+        bounds = new float[capacity * 6];
+        from = new int[capacity];
+        to = new int[capacity];
+        right = new int[capacity];
+        totalNodes = 0;
+        int depth = size == 0 ? 0 : buildNode(0, size);
+        candidates = new int[depth + 2][0];
+    }
+
+    /**
+     * Adds a node for the passed range of {@link #order} and, unless it becomes a leaf, its children
+     *
+     * @param start The index of the first pixel of the node in {@link #order}
+     * @param end   The index after the last pixel of the node in {@link #order}
+     * @return An {@link Integer int} - The depth of the subtree below the node, 0 for a leaf
+     */
+    private int buildNode(int start, int end) {
+        int node = totalNodes++;
+        ensureCapacity(totalNodes);
+        from[node] = start;
+        to[node] = end;
+        right[node] = -1;
+
+        float[] min = {Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE};
+        float[] max = {-Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE};
+        for (int d = 0; d < 3; d++) {
+            float[] channel = channels[d];
+            for (int p = start; p < end; p++) {
+                if (channel[p] < min[d]) {
+                    min[d] = channel[p];
+                }
+                if (channel[p] > max[d]) {
+                    max[d] = channel[p];
+                }
+            }
+        }
+        System.arraycopy(min, 0, bounds, node * 6, 3);
+        System.arraycopy(max, 0, bounds, node * 6 + 3, 3);
+
+        int widest = 0;
+        for (int d = 1; d < 3; d++) {
+            if (max[d] - min[d] > max[widest] - min[widest]) {
+                widest = d;
+            }
+        }
+        if (end - start <= LEAF_SIZE || max[widest] == min[widest]) {
+            return 0;
+        }
+
+        //split at the middle of the box rather than at the median, which keeps the boxes compact and needs one pass
+        int middle = partition(widest, start, end, (min[widest] + (double) max[widest]) / 2);
+        int leftDepth = buildNode(start, middle);
+        right[node] = totalNodes;
+        int rightDepth = buildNode(middle, end);
+        return Math.max(leftDepth, rightDepth) + 1;
+    }
+
+    /**
+     * Reorders the passed range of {@link #order} and {@link #channels} so that all pixels with a smaller value of the
+     * passed channel than the passed split value come first
+     *
+     * @param channelNo The index of the channel to split by in {@link #channels}
+     * @param start     The index of the first pixel of the range
+     * @param end       The index after the last pixel of the range
+     * @param split     The value to split at
+     * @return An {@link Integer int} - The index of the first pixel whose value isn't smaller than the split value
+     */
+    private int partition(int channelNo, int start, int end, double split) {
+        float[] channel = channels[channelNo];
+        int i = start;
+        int j = end - 1;
+        while (true) {
+            while (i <= j && channel[i] < split) {
+                i++;
+            }
+            while (i <= j && channel[j] >= split) {
+                j--;
+            }
+            if (i >= j) {
+                return i;
+            }
+            swap(i, j);
+        }
+    }
+
+    /**
+     * Swaps two pixels in {@link #order} and {@link #channels}
+     *
+     * @param i The index of the first pixel
+     * @param j The index of the second pixel
+     */
+    private void swap(int i, int j) {
+        int index = order[i];
+        order[i] = order[j];
+        order[j] = index;
+        for (float[] channel : channels) {
+            float value = channel[i];
+            channel[i] = channel[j];
+            channel[j] = value;
+        }
+    }
+
+    /**
+     * Grows the arrays of the nodes if they can't hold the passed number of nodes
+     *
+     * @param nodes The number of nodes the arrays have to hold
+     */
+    private void ensureCapacity(int nodes) {
+        if (nodes <= from.length) {
+            return;
+        }
+        int capacity = Math.max(nodes, from.length * 2);
+        bounds = Arrays.copyOf(bounds, capacity * 6);
+        from = Arrays.copyOf(from, capacity);
+        to = Arrays.copyOf(to, capacity);
+        right = Arrays.copyOf(right, capacity);
+    }
+}
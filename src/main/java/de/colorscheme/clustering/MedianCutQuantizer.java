@@ -0,0 +1,192 @@
+package de.colorscheme.clustering;
+
+import javafx.geometry.Point3D;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The {@link PaletteEngine#MEDIAN_CUT median cut} engine for determining the main colors of an image. <br>
+ * <ol>
+ *     <li>
+ *         All pixels start in a single box, spanning the smallest and largest red, green and blue value.
+ *     </li>
+ *     <li>
+ *         The box with the longest side is sorted along that side and split at the weighted median, so both halves
+ *         stand for about the same number of pixels.
+ *     </li>
+ *     <li>
+ *         This is repeated until there are as many boxes as colors requested or no box can be split any more. The mean
+ *         colors of the boxes form the palette.
+ *     </li>
+ * </ol>
+ * Each split only sorts the pixels of one box, so the engine finishes in milliseconds even on full-size images.
+ *
+ * @author &copy; 2024 Elisa Johanna Woelk | elisa-johanna.woelk@outlook.de | @fenris_22127
+ * @version 1.0
+ * @since 18.0.1
+ */
+public final class MedianCutQuantizer implements PaletteExtractor {
+
+    @Override
+    public void extractPalette(ColorData colorData, int totalColors) {
+        PixelStore pixels = colorData.getPixels();
+        int[] order = new int[pixels.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        long[] keys = new long[order.length];
+
+        List<Box> boxes = new ArrayList<>();
+        boxes.add(new Box(pixels, order, 0, order.length));
+        while (boxes.size() < totalColors) {
+            Box widest = null;
+            for (Box box : boxes) {
+                if (box.to - box.from > 1 && box.longestSide() > 0
+                        && (widest == null || box.longestSide() > widest.longestSide())) {
+                    widest = box;
+                }
+            }
+            if (widest == null) {
+                break;
+            }
+            int split = split(pixels, order, keys, widest);
+            boxes.remove(widest);
+            boxes.add(new Box(pixels, order, widest.from, split));
+            boxes.add(new Box(pixels, order, split, widest.to));
+        }
+
+        List<Point3D> palette = new ArrayList<>();
+        for (Box box : boxes) {
+            palette.add(new Point3D(box.sumX / box.weight, box.sumY / box.weight, box.sumZ / box.weight));
+        }
+        colorData.setPalette(palette, totalColors);
+    }
+
+    /**
+     * Sorts the pixels of a box along its longest side and finds the weighted median
+     *
+     * @param pixels The pixels of the image
+     * @param order  The indices of the pixels, ordered by box
+     * @param keys   The array used for sorting
+     * @param box    The box to be split
+     * @return An {@link Integer int} - The position in {@code order} of the first pixel of the upper half
+     */
+    private static int split(PixelStore pixels, int[] order, long[] keys, Box box) {
+        int channel = box.longestChannel();
+        //non-negative floats keep their order when compared by their bits, so the sort needs no boxing
+        for (int i = box.from; i < box.to; i++) {
+            keys[i] = ((long) Float.floatToIntBits(value(pixels, order[i], channel)) << 32) | order[i];
+        }
+        Arrays.sort(keys, box.from, box.to);
+
+        long half = box.weight / 2;
+        long cumulative = 0;
+        int split = -1;
+        for (int i = box.from; i < box.to; i++) {
+            order[i] = (int) keys[i];
+            cumulative += pixels.getWeight(order[i]);
+            if (split < 0 && cumulative >= half) {
+                split = i + 1;
+            }
+        }
+        return Math.max(box.from + 1, Math.min(box.to - 1, split));
+    }
+
+    /**
+     * Returns a channel of a pixel
+     *
+     * @param pixels  The pixels of the image
+     * @param p       The index of the pixel
+     * @param channel 0 for red, 1 for green and 2 for blue
+     * @return A {@link Float float} - The value of the channel
+     */
+    private static float value(PixelStore pixels, int p, int channel) {
+        if (channel == 0) {
+            return pixels.getX(p);
+        }
+        return channel == 1 ? pixels.getY(p) : pixels.getZ(p);
+    }
+
+    /**
+     * A range of {@code order} spanning the pixels of one box, with the bounds and sums of its pixels
+     */
+    private static final class Box {
+        /**
+         * The position in {@code order} of the first pixel of the box
+         */
+        private final int from;
+        /**
+         * The position in {@code order} after the last pixel of the box
+         */
+        private final int to;
+        /**
+         * The smallest red, green and blue value in the box
+         */
+        private final float[] min = {Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE};
+        /**
+         * The largest red, green and blue value in the box
+         */
+        private final float[] max = {-Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE};
+        /**
+         * The number of pixels in the box
+         */
+        private long weight;
+        /**
+         * The weighted sum of the red values in the box
+         */
+        private double sumX;
+        /**
+         * The weighted sum of the green values in the box
+         */
+        private double sumY;
+        /**
+         * The weighted sum of the blue values in the box
+         */
+        private double sumZ;
+
+        Box(PixelStore pixels, int[] order, int from, int to) {
+            this.from = from;
+            this.to = to;
+            for (int i = from; i < to; i++) {
+                int p = order[i];
+                for (int channel = 0; channel < 3; channel++) {
+                    float v = value(pixels, p, channel);
+                    min[channel] = Math.min(min[channel], v);
+                    max[channel] = Math.max(max[channel], v);
+                }
+                int w = pixels.getWeight(p);
+                weight += w;
+                sumX += (double) pixels.getX(p) * w;
+                sumY += (double) pixels.getY(p) * w;
+                sumZ += (double) pixels.getZ(p) * w;
+            }
+        }
+
+        /**
+         * Returns the channel along which the box is the longest
+         *
+         * @return An {@link Integer int} - 0 for red, 1 for green and 2 for blue
+         */
+        int longestChannel() {
+            int longest = 0;
+            for (int channel = 1; channel < 3; channel++) {
+                if (max[channel] - min[channel] > max[longest] - min[longest]) {
+                    longest = channel;
+                }
+            }
+            return longest;
+        }
+
+        /**
+         * Returns the length of the longest side of the box
+         *
+         * @return A {@link Float float} - The difference between the largest and smallest value along the longest side
+         */
+        float longestSide() {
+            int channel = longestChannel();
+            return max[channel] - min[channel];
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package de.colorscheme.clustering;
+
+import javafx.geometry.Point3D;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The {@link KMeansMode#MINI_BATCH mini-batch} engine for the KMeans clustering process. <br>
+ * Instead of assigning every pixel in every iteration, each iteration draws a random batch of
+ * {@link KMeansConfig#getBatchSize() pixels}, assigns only those and moves each centroid towards the pixels assigned to
+ * it. Every centroid has its own learning rate, which is the inverse of the number of pixels it has been moved towards
+ * so far, so the centroids settle down as more batches are seen. <br>
+ * The run ends after {@link KMeansConfig#getBatchIterations() a number of batches} or earlier, once the smoothed
+ * Sum of Squared Errors of the batches hasn't improved for {@link #MAX_NO_IMPROVEMENT} batches in a row. Time and
+ * memory only depend on the batch size and the number of batches, not on the size of the image. <br>
+ * The {@link KMeansConfig#getConvergence() convergence policy} is checked after every batch as well. As the Sum of
+ * Squared Errors of the batches is noisy and the engine doesn't track which pixels changed their cluster, it is passed
+ * {@link Double#NaN NaN} for both, so only criteria like the iteration cap or the time budget apply.
+ *
+ * @author &copy; 2024 Elisa Johanna Woelk | elisa-johanna.woelk@outlook.de | @fenris_22127
+ * @version 1.0
+ * @since 18.0.1
+ */
+final class MiniBatchKMeans {
+
+    /**
+     * The number of batches in a row without improvement of the smoothed Sum of Squared Errors, after which the run
+     * ends early
+     */
+    private static final int MAX_NO_IMPROVEMENT = 10;
+
+    /**
+     * Private constructor to hide the public one
+     */
+    private MiniBatchKMeans() {
+    }
+
+    /**
+     * Moves the centroids of the passed {@link ColorData} towards random batches of its pixels and finally assigns
+     * every pixel to its closest centroid
+     *
+     * @param colorData      The instance used for all processes for the currently inspected image, its
+     *                       {@link ColorData#getCentroids() centroids} must already be initialized
+     * @param totalCentroids The number of centroids
+     * @param config         The settings providing the batch size and the number of batches
+     * @param report         The {@link KMeansReport} every batch is recorded in
+     * @param start          The {@link System#currentTimeMillis() time} the run started at
+     */
+    static void run(ColorData colorData, int totalCentroids, KMeansConfig config, KMeansReport report, long start) {
+        PixelStore pixels = colorData.getPixels();
+        Random random = colorData.getRandom();
+        double[] centroids = KMeans.toArray(colorData.getCentroids());
+        long[] seen = new long[totalCentroids];
+
+        int batchSize = Math.min(config.getBatchSize(), pixels.size());
+        int[] batch = new int[batchSize];
+        int[] nearest = new int[batchSize];
+        //weight of each new batch in the smoothed Sum of Squared Errors
+        double alpha = Math.min(1.0, 2.0 * batchSize / pixels.size());
+        double smoothed = Double.NaN;
+        double best = Double.MAX_VALUE;
+        int noImprovement = 0;
+        KMeansStopReason stopReason = KMeansStopReason.MAX_ITERATIONS;
+
+        for (int iteration = 0; iteration < config.getBatchIterations(); iteration++) {
+            //assign the batch to the centroids as they were before this batch
+            double batchErrors = 0.0;
+            long batchWeight = 0;
+            for (int b = 0; b < batchSize; b++) {
+                int p = random.nextInt(pixels.size());
+                batch[b] = p;
+                nearest[b] = KMeans.nearestCentroid(centroids, totalCentroids, pixels.getX(p), pixels.getY(p),
+                        pixels.getZ(p));
+                batchErrors += squaredDistance(centroids, nearest[b], pixels, p) * pixels.getWeight(p);
+                batchWeight += pixels.getWeight(p);
+            }
+
+            //move each centroid towards its pixels with its own, decreasing learning rate
+            for (int b = 0; b < batchSize; b++) {
+                int p = batch[b];
+                int c = nearest[b];
+                seen[c] += pixels.getWeight(p);
+                double learningRate = (double) pixels.getWeight(p) / seen[c];
+                centroids[c * 3] += learningRate * (pixels.getX(p) - centroids[c * 3]);
+                centroids[c * 3 + 1] += learningRate * (pixels.getY(p) - centroids[c * 3 + 1]);
+                centroids[c * 3 + 2] += learningRate * (pixels.getZ(p) - centroids[c * 3 + 2]);
+            }
+
+            double errorPerPixel = batchErrors / batchWeight;
+            smoothed = Double.isNaN(smoothed) ? errorPerPixel : smoothed * (1 - alpha) + errorPerPixel * alpha;
+            report.addIteration(0, smoothed * pixels.getTotalWeight());
+
+            if (smoothed < best) {
+                best = smoothed;
+                noImprovement = 0;
+            } else if (++noImprovement >= MAX_NO_IMPROVEMENT) {
+                stopReason = KMeansStopReason.SSE_CONVERGED;
+                break;
+            }
+
+            KMeansStopReason policyReason = config.getConvergence().check(report.getIterations(), Double.NaN,
+                    smoothed * pixels.getTotalWeight(), Double.NaN, System.currentTimeMillis() - start);
+            if (policyReason != null) {
+                stopReason = policyReason;
+                break;
+            }
+        }
+        report.setStopReason(stopReason);
+
+        List<Point3D> centroidList = colorData.getCentroids();
+        for (int i = 0; i < totalCentroids; i++) {
+            centroidList.set(i, new Point3D(centroids[i * 3], centroids[i * 3 + 1], centroids[i * 3 + 2]));
+        }
+        KMeans.assignToNearestCentroid(colorData, totalCentroids);
+    }
+
+    /**
+     * Calculates the squared Euclidean Distance between a centroid and a pixel
+     *
+     * @param centroids The x, y and z coordinates of all centroids, one after another
+     * @param centroid  The number of the centroid
+     * @param pixels    The pixels of the image
+     * @param p         The index of the pixel
+     * @return A {@link Double double} - The squared distance between the centroid and the pixel
+     */
+    private static double squaredDistance(double[] centroids, int centroid, PixelStore pixels, int p) {
+        double dx = pixels.getX(p) - centroids[centroid * 3];
+        double dy = pixels.getY(p) - centroids[centroid * 3 + 1];
+        double dz = pixels.getZ(p) - centroids[centroid * 3 + 2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+}
@@ -0,0 +1,114 @@
+package de.colorscheme.clustering;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs {@link KMeans} {@link KMeansConfig#getRestarts() several times} and keeps the run with the lowest Sum of Squared
+ * Errors, as a single run may end in a poor local minimum depending on its starting centroids. <br>
+ * <ol>
+ *     <li>
+ *         If a {@link KMeansConfig#getSeed() seed} is set, the seed of every run is drawn from it in a fixed order, so
+ *         the same seed always yields the same runs. Otherwise, every run draws its own random values.
+ *     </li>
+ *     <li>
+ *         The runs are spread over {@link KMeansConfig#getThreads() several threads}. All of them read the same
+ *         {@link PixelStore}, each through its own {@link ColorData} holding only its centroids and cluster numbers.
+ *         Every run itself uses a single thread, so a {@link KMeansMode#PARALLEL parallel} engine doesn't start a
+ *         pool of its own for every run on top of the threads the runs are spread over.
+ *     </li>
+ *     <li>
+ *         The run with the lowest Sum of Squared Errors is copied to the passed {@link ColorData}, the first one on a
+ *         tie. As neither the seeds nor the pick depend on which run finishes first, the result is bit-identical for
+ *         the same seed.
+ *     </li>
+ * </ol>
+ *
+ * @author &copy; 2024 Elisa Johanna Woelk | elisa-johanna.woelk@outlook.de | @fenris_22127
+ * @version 1.0
+ * @since 18.0.1
+ */
+final class MultiRestartKMeans {
+
+    /**
+     * Private constructor to hide the public one
+     */
+    private MultiRestartKMeans() {
+    }
+
+    /**
+     * Clusters the pixels of the passed {@link ColorData} as often as set in the passed {@link KMeansConfig} and keeps
+     * the best run. A single run is clustered directly on the passed {@link ColorData}.
+     *
+     * @param colorData      A {@link ColorData} object: The instance holding the pixels to be clustered, receives the
+     *                       result of the best run
+     * @param totalCentroids An {@link Integer int}: The number of centroids to be calculated
+     * @param config         A {@link KMeansConfig}: The settings for every run
+     * @param start          A {@link Long long}: The {@link System#currentTimeMillis() time} the first run started at
+     * @return A {@link KMeansReport} - The statistics of the best run
+     */
+    static KMeansReport run(ColorData colorData, int totalCentroids, KMeansConfig config, long start) {
+        long[] seeds = seeds(config);
+        if (seeds.length == 1) {
+            colorData.setSeed(seeds[0]);
+            return KMeans.cluster(colorData, totalCentroids, config, start);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(config.getThreads(), seeds.length));
+        KMeansConfig runConfig = config.copy().withThreads(1);
+        List<ColorData> views = new ArrayList<>();
+        List<Future<KMeansReport>> runs = new ArrayList<>();
+        try {
+            for (long seed : seeds) {
+                ColorData view = new ColorData(colorData.getPixels());
+                view.setSeed(seed);
+                views.add(view);
+                runs.add(pool.submit(() -> KMeans.cluster(view, totalCentroids, runConfig, start)));
+            }
+
+            int best = 0;
+            double bestSumSquaredErrors = Double.MAX_VALUE;
+            KMeansReport bestReport = null;
+            for (int i = 0; i < seeds.length; i++) {
+                KMeansReport report = runs.get(i).get();
+                ColorData view = views.get(i);
+                double sumSquaredErrors = view.calculateTotalSumSquaredDistances(view.getCentroids());
+                if (bestReport == null || sumSquaredErrors < bestSumSquaredErrors) {
+                    best = i;
+                    bestSumSquaredErrors = sumSquaredErrors;
+                    bestReport = report;
+                }
+            }
+            colorData.copyClustering(views.get(best));
+            return bestReport;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Clustering was interrupted!", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Clustering failed in one of the runs!", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Draws the seed of every run from the {@link KMeansConfig#getSeed() seed} set in the passed
+     * {@link KMeansConfig}, or from a random one if none is set
+     *
+     * @param config A {@link KMeansConfig}: The settings for every run
+     * @return A {@link Long long} array - The seed of every run, in the order of the runs
+     */
+    private static long[] seeds(KMeansConfig config) {
+        Random random = config.getSeed() == null ? new Random() : new Random(config.getSeed());
+        long[] seeds = new long[config.getRestarts()];
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = random.nextLong();
+        }
+        return seeds;
+    }
+}
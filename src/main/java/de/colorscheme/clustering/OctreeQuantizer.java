@@ -0,0 +1,217 @@
+package de.colorscheme.clustering;
+
+import javafx.geometry.Point3D;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The {@link PaletteEngine#OCTREE octree} engine for determining the main colors of an image. <br>
+ * <ol>
+ *     <li>
+ *         Every pixel is inserted into a tree in which each level halves the red, green and blue range of its parent,
+ *         so every node has up to eight children and the leaves at level {@link #MAX_DEPTH} hold single colors. Each
+ *         node counts the pixels below it, each leaf sums up the values of its pixels.
+ *     </li>
+ *     <li>
+ *         While there are more leaves than colors requested, the nodes of the deepest level are reduced, the ones with
+ *         the fewest pixels first: their children are merged into them, so the node becomes a leaf itself. Nodes whose
+ *         reduction would leave fewer leaves than colors requested are skipped.
+ *     </li>
+ *     <li>
+ *         The mean colors of the leaves with the most pixels form the palette.
+ *     </li>
+ * </ol>
+ * The pixels are visited only once and the reduction only depends on the number of distinct colors, so the engine
+ * finishes in milliseconds even on full-size images.
+ *
+ * @author &copy; 2024 Elisa Johanna Woelk | elisa-johanna.woelk@outlook.de | @fenris_22127
+ * @version 1.0
+ * @since 18.0.1
+ */
+public final class OctreeQuantizer implements PaletteExtractor {
+
+    /**
+     * The number of levels below the root, one per bit of a color channel
+     */
+    private static final int MAX_DEPTH = 8;
+
+    @Override
+    public void extractPalette(ColorData colorData, int totalColors) {
+        PixelStore pixels = colorData.getPixels();
+        Node root = new Node();
+        List<List<Node>> levels = new ArrayList<>();
+        for (int level = 0; level < MAX_DEPTH; level++) {
+            levels.add(new ArrayList<Node>());
+        }
+        levels.get(0).add(root);
+
+        int leafCount = 0;
+        for (int p = 0; p < pixels.size(); p++) {
+            leafCount += insert(root, levels, pixels.getX(p), pixels.getY(p), pixels.getZ(p), pixels.getWeight(p));
+        }
+
+        //reduce the deepest nodes with the fewest pixels first
+        for (int level = MAX_DEPTH - 1; level >= 0 && leafCount > totalColors; level--) {
+            List<Node> nodes = levels.get(level);
+            nodes.sort(Comparator.comparingLong(node -> node.weight));
+            for (Node node : nodes) {
+                if (leafCount <= totalColors) {
+                    break;
+                }
+                int leaves = countLeaves(node);
+                if (leafCount - (leaves - 1) >= totalColors) {
+                    merge(node, node);
+                    node.children = null;
+                    leafCount -= leaves - 1;
+                }
+            }
+        }
+
+        List<Node> leaves = new ArrayList<>();
+        collectLeaves(root, leaves);
+        leaves.sort(Comparator.comparingLong((Node node) -> node.weight).reversed());
+        List<Point3D> palette = new ArrayList<>();
+        for (int i = 0; i < leaves.size() && i < totalColors; i++) {
+            Node leaf = leaves.get(i);
+            palette.add(new Point3D(leaf.sumX / leaf.weight, leaf.sumY / leaf.weight, leaf.sumZ / leaf.weight));
+        }
+        colorData.setPalette(palette, totalColors);
+    }
+
+    /**
+     * Inserts a pixel into the tree, creating the nodes on its path that don't exist yet
+     *
+     * @param root   The root of the tree
+     * @param levels The nodes that can be reduced, per level
+     * @param x      The red value of the pixel
+     * @param y      The green value of the pixel
+     * @param z      The blue value of the pixel
+     * @param weight The number of pixels the entry stands for
+     * @return An {@link Integer int} - 1 if a new leaf was created, 0 otherwise
+     */
+    private static int insert(Node root, List<List<Node>> levels, float x, float y, float z, int weight) {
+        int red = channel(x);
+        int green = channel(y);
+        int blue = channel(z);
+        int newLeaves = 0;
+        Node node = root;
+        node.weight += weight;
+        for (int level = 0; level < MAX_DEPTH; level++) {
+            int shift = MAX_DEPTH - 1 - level;
+            int index = (((red >> shift) & 1) << 2) | (((green >> shift) & 1) << 1) | ((blue >> shift) & 1);
+            Node child = node.children[index];
+            if (child == null) {
+                child = new Node();
+                if (level + 1 < MAX_DEPTH) {
+                    levels.get(level + 1).add(child);
+                } else {
+                    child.children = null;
+                    newLeaves++;
+                }
+                node.children[index] = child;
+            }
+            node = child;
+            node.weight += weight;
+        }
+        node.sumX += (double) x * weight;
+        node.sumY += (double) y * weight;
+        node.sumZ += (double) z * weight;
+        return newLeaves;
+    }
+
+    /**
+     * Rounds a color value and clamps it to the range of 0 to 255
+     *
+     * @param value The color value
+     * @return An {@link Integer int} - The value between 0 and 255
+     */
+    private static int channel(float value) {
+        return Math.max(0, Math.min(255, Math.round(value)));
+    }
+
+    /**
+     * Counts the leaves below a node
+     *
+     * @param node The node
+     * @return An {@link Integer int} - The number of leaves, 1 if the node is a leaf itself
+     */
+    private static int countLeaves(Node node) {
+        if (node.children == null) {
+            return 1;
+        }
+        int leaves = 0;
+        for (Node child : node.children) {
+            if (child != null) {
+                leaves += countLeaves(child);
+            }
+        }
+        return leaves;
+    }
+
+    /**
+     * Adds the sums of all leaves below a node to the sums of the target node
+     *
+     * @param node   The node whose leaves are merged
+     * @param target The node the sums are added to
+     */
+    private static void merge(Node node, Node target) {
+        for (Node child : node.children) {
+            if (child == null) {
+                continue;
+            }
+            if (child.children == null) {
+                target.sumX += child.sumX;
+                target.sumY += child.sumY;
+                target.sumZ += child.sumZ;
+            } else {
+                merge(child, target);
+            }
+        }
+    }
+
+    /**
+     * Adds all leaves below a node to the passed {@link List}
+     *
+     * @param node   The node
+     * @param leaves The {@link List} the leaves are added to
+     */
+    private static void collectLeaves(Node node, List<Node> leaves) {
+        if (node.children == null) {
+            leaves.add(node);
+            return;
+        }
+        for (Node child : node.children) {
+            if (child != null) {
+                collectLeaves(child, leaves);
+            }
+        }
+    }
+
+    /**
+     * A node of the tree, which is a leaf once it has no children
+     */
+    private static final class Node {
+        /**
+         * The children of the node, {@code null} for a leaf
+         */
+        private Node[] children = new Node[8];
+        /**
+         * The number of pixels below the node
+         */
+        private long weight;
+        /**
+         * The weighted sum of the red values of the pixels of a leaf
+         */
+        private double sumX;
+        /**
+         * The weighted sum of the green values of the pixels of a leaf
+         */
+        private double sumY;
+        /**
+         * The weighted sum of the blue values of the pixels of a leaf
+         */
+        private double sumZ;
+    }
+}
@@ -0,0 +1,118 @@
+package de.colorscheme.clustering;
+
+import java.util.Locale;
+
+/**
+ * The available {@link PaletteExtractor engines} for determining the main colors of an image, each with a name it can
+ * be {@link #fromName(String) picked} by
+ *
+ * @author &copy; 2024 Elisa Johanna Woelk | elisa-johanna.woelk@outlook.de | @fenris_22127
+ * @version 1.0
+ * @since 18.0.1
+ */
+public enum PaletteEngine implements PaletteExtractor {
+    /**
+     * {@link KMeans#kMeans(ColorData, int) KMeans} with the default {@link KMeansConfig settings}: iterates until the
+     * colors hardly change, gives the best result
+     */
+    KMEANS("kmeans", KMeans::kMeans),
+    /**
+     * {@link KMeans#kMeans(ColorData, int, KMeansConfig) KMeans} in the {@link ClusteringColorSpace#LAB Lab} color
+     * space: groups the colors the way a person sees them
+     */
+    KMEANS_LAB("kmeans-lab", (colorData, totalColors) -> KMeans.kMeans(colorData, totalColors,
+            new KMeansConfig().withColorSpace(ClusteringColorSpace.LAB))),
+    /**
+     * {@link AutoKSelector Automatic selection}: runs {@link KMeans} for every number of colors from 2 up to the
+     * number requested in parallel and keeps the one with the best score. The requested number is only an upper
+     * bound, the palette may have fewer colors.
+     */
+    KMEANS_AUTO("kmeans-auto", (colorData, totalColors) -> AutoKSelector.select(colorData, Math.min(2, totalColors),
+            totalColors, new KMeansConfig())),
+    /**
+     * {@link PaletteHierarchy Hierarchical}: runs {@link KMeans} once and merges the clusters into the palettes for
+     * every smaller number of colors, so the GUI can switch between them without clustering again. Used on its own,
+     * it gives the same palette as {@link #KMEANS}.
+     */
+    KMEANS_HIERARCHICAL("kmeans-hierarchical", (colorData, totalColors) -> PaletteHierarchy.cluster(colorData,
+            totalColors, new KMeansConfig())),
+    /**
+     * {@link OctreeQuantizer Octree quantization}: a single pass over the pixels, finishes in milliseconds
+     */
+    OCTREE("octree", new OctreeQuantizer()),
+    /**
+     * {@link MedianCutQuantizer Median cut}: a few sorts of the pixels, finishes in milliseconds
+     */
+    MEDIAN_CUT("median-cut", new MedianCutQuantizer()),
+    /**
+     * {@link WuQuantizer Wu quantization}: a single pass over the pixels and a few greedy splits of a color cube,
+     * finishes in milliseconds and comes close to {@link #KMEANS}
+     */
+    WU("wu", new WuQuantizer());
+
+    /**
+     * The name the engine is picked by
+     */
+    private final String engineName;
+    /**
+     * The algorithm determining the colors
+     */
+    private final PaletteExtractor extractor;
+
+    PaletteEngine(String engineName, PaletteExtractor extractor) {
+        this.engineName = engineName;
+        this.extractor = extractor;
+    }
+
+    /**
+     * Returns the name the engine is picked by
+     *
+     * @return A {@link String}: The name, e.g. {@code median-cut}
+     */
+    public String getEngineName() {
+        return engineName;
+    }
+
+    /**
+     * Determines the main colors of the image with this engine. The number of colors stored in the
+     * {@link ColorData#getCentroids() centroids} is the passed value, or the number picked by {@link #KMEANS_AUTO}.
+     *
+     * @param colorData   A {@link ColorData} object: The instance used for all processes for the currently inspected
+     *                    image
+     * @param totalColors An {@link Integer int}: The number of colors to be determined, the largest number allowed for
+     *                    {@link #KMEANS_AUTO}
+     */
+    @Override
+    public void extractPalette(ColorData colorData, int totalColors) {
+        extractor.extractPalette(colorData, totalColors);
+    }
+
+    /**
+     * Finds the engine with the passed name, ignoring case, '-' and '_', so {@code median-cut}, {@code MEDIAN_CUT}
+     * and {@code medianCut} all pick {@link #MEDIAN_CUT}
+     *
+     * @param name A {@link String}: The name of the engine
+     * @return A {@link PaletteEngine} - The engine with the passed name
+     */
+    public static PaletteEngine fromName(String name) {
+        if (name != null) {
+            String normalized = normalize(name);
+            for (PaletteEngine engine : values()) {
+                if (normalize(engine.engineName).equals(normalized)) {
+                    return engine;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unknown palette engine! Actual value: " + name);
+    }
+
+    /**
+     * Removes '-', '_' and whitespace from the passed name and converts it to lower case
+     *
+     * @param name A {@link String}: The name of an engine
+     * @return A {@link String} - The normalized name
+     */
+    private static String normalize(String name) {
+        return name.replaceAll("[-_\\s]", "").toLowerCase(Locale.ROOT);
+    }
+}
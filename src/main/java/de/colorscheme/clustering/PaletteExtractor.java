@@ -0,0 +1,52 @@
+package de.colorscheme.clustering;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * An algorithm determining the main colors of an image from its {@link ColorData#getPixels() pixels}. <br>
+ * After {@link #extractPalette(ColorData, int)} returns, the {@link ColorData#getCentroids() centroids} of the passed
+ * {@link ColorData} hold the requested number of colors and every pixel is assigned to one of them. Engines picking
+ * the number of colors themselves, like {@link PaletteEngine#KMEANS_AUTO}, take the requested number as the largest
+ * one allowed and may return fewer colors. The available engines are listed in {@link PaletteEngine}. <br>
+ * An extractor keeps no state of its own between calls, everything belonging to an image is stored in its
+ * {@link ColorData}, so the same extractor can process several images at the same time on different threads.
+ *
+ * @author &copy; 2024 Elisa Johanna Woelk | elisa-johanna.woelk@outlook.de | @fenris_22127
+ * @version 1.0
+ * @since 18.0.1
+ */
+public interface PaletteExtractor {
+
+    /**
+     * Determines the main colors of the image and stores them as the {@link ColorData#getCentroids() centroids} of the
+     * passed {@link ColorData}
+     *
+     * @param colorData   A {@link ColorData} object: The instance used for all processes for the currently inspected
+     *                    image
+     * @param totalColors An {@link Integer int}: The number of colors to be determined, or the largest number allowed
+     *                    for engines picking the number themselves
+     */
+    void extractPalette(ColorData colorData, int totalColors);
+
+    /**
+     * Reads the pixels of the passed image into a new {@link ColorData}, determines its main colors and returns
+     * it. <br>
+     * Every call works on its own {@link ColorData}, so this method may be called for several images at the same time.
+     *
+     * @param image          A {@link BufferedImage}: The image to determine the main colors of
+     * @param bitsPerChannel An {@link Integer int}: The number of bits per channel of the
+     *                       {@link ColorData#createHistogramColorData(BufferedImage, int) histogram} the pixels are
+     *                       folded into, or {@link ColorData#NO_HISTOGRAM} to keep every pixel on its own
+     * @param totalColors    An {@link Integer int}: The number of colors to be determined, or the largest number
+     *                       allowed for engines picking the number themselves
+     * @return A {@link ColorData} - The instance holding the pixels of the image and its main colors as
+     * {@link ColorData#getCentroids() centroids}, at most {@code totalColors} of them
+     */
+    default ColorData extractPalette(BufferedImage image, int bitsPerChannel, int totalColors) {
+        ColorData colorData = bitsPerChannel == ColorData.NO_HISTOGRAM
+                ? ColorData.createColorData(image)
+                : ColorData.createHistogramColorData(image, bitsPerChannel);
+        extractPalette(colorData, totalColors);
+        return colorData;
+    }
+}
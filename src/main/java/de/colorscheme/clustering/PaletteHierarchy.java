@@ -0,0 +1,245 @@
+package de.colorscheme.clustering;
+
+import javafx.geometry.Point3D;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The palettes for every number of colors up to a maximum, derived from a single clustering run. <br>
+ * The image is clustered once with the largest number of colors. Starting from these clusters, the two clusters whose
+ * merge increases the Sum of Squared Errors the least are merged, until a single cluster is left (Ward linkage). The
+ * increase is calculated from the weight and the mean of the two clusters alone:
+ * <pre>{@code weightA * weightB / (weightA + weightB) * |meanA - meanB|²}</pre>
+ * Every smaller palette is read off this merge tree without another pass over the clusters, so switching between
+ * the numbers of colors, e.g. with the spinner of the GUI, doesn't run {@link KMeans} again. <br>
+ * The palette with the largest number of colors is the one found by {@link KMeans}, the smaller ones usually differ
+ * slightly from the ones a separate run would find. The colors of each palette are ordered by the first of the
+ * original clusters merged into them.
+ *
+ * @author &copy; 2024 Elisa Johanna Woelk | elisa-johanna.woelk@outlook.de | @fenris_22127
+ * @version 1.0
+ * @since 18.0.1
+ */
+public final class PaletteHierarchy {
+
+    /**
+     * The palette for every number of colors, the one with a single color at index 0
+     */
+    private final List<List<Point3D>> palettes;
+    /**
+     * For every number of colors, the index of the color in its palette that each original cluster was merged into
+     */
+    private final int[][] clusterMaps;
+    /**
+     * The cluster of every pixel with the largest number of colors
+     */
+    private final short[] originalClusterNo;
+
+    /**
+     * Creates the hierarchy from the computed palettes
+     *
+     * @param palettes          The palette for every number of colors, the one with a single color at index 0
+     * @param clusterMaps       For every number of colors, the color each original cluster was merged into
+     * @param originalClusterNo The cluster of every pixel with the largest number of colors
+     */
+    private PaletteHierarchy(List<List<Point3D>> palettes, int[][] clusterMaps, short[] originalClusterNo) {
+        this.palettes = palettes;
+        this.clusterMaps = clusterMaps;
+        this.originalClusterNo = originalClusterNo;
+    }
+
+    /**
+     * Clusters the image with the largest number of colors and builds the hierarchy of all smaller palettes. <br>
+     * The passed {@link ColorData} holds the palette with the largest number of colors afterwards.
+     *
+     * @param colorData A {@link ColorData} object: The instance used for all processes for the currently inspected
+     *                  image
+     * @param maxK      An {@link Integer int}: The largest number of colors
+     * @param config    A {@link KMeansConfig}: The settings for the clustering run
+     * @return A {@link PaletteHierarchy} - The palettes for every number of colors from 1 to {@code maxK}
+     */
+    public static PaletteHierarchy cluster(ColorData colorData, int maxK, KMeansConfig config) {
+        KMeans.kMeans(colorData, maxK, config);
+        return build(colorData);
+    }
+
+    /**
+     * Builds the hierarchy of all smaller palettes from the clusters the passed {@link ColorData} currently holds
+     *
+     * @param colorData A {@link ColorData} object: The clustered instance of the currently inspected image
+     * @return A {@link PaletteHierarchy} - The palettes for every number of colors up to the current one
+     */
+    public static PaletteHierarchy build(ColorData colorData) {
+        List<Point3D> centroids = colorData.getCentroids();
+        int maxK = centroids.size();
+        if (maxK < 1) {
+            throw new IllegalArgumentException("The image has to be clustered first! Actual value: " + maxK);
+        }
+
+        PixelStore pixels = colorData.getPixels();
+        short[] clusterNo = new short[pixels.size()];
+        double[] sumX = new double[maxK];
+        double[] sumY = new double[maxK];
+        double[] sumZ = new double[maxK];
+        long[] weight = new long[maxK];
+        for (int p = 0; p < pixels.size(); p++) {
+            int cluster = colorData.getClusterNo(p);
+            clusterNo[p] = (short) cluster;
+            sumX[cluster] += (double) pixels.getX(p) * pixels.getWeight(p);
+            sumY[cluster] += (double) pixels.getY(p) * pixels.getWeight(p);
+            sumZ[cluster] += (double) pixels.getZ(p) * pixels.getWeight(p);
+            weight[cluster] += pixels.getWeight(p);
+        }
+
+        //the active clusters in ascending order of the first original cluster merged into them
+        List<Integer> active = new ArrayList<>();
+        Point3D[] means = new Point3D[maxK];
+        int[] mergedInto = new int[maxK];
+        for (int i = 0; i < maxK; i++) {
+            active.add(i);
+            means[i] = centroids.get(i);
+            mergedInto[i] = i;
+        }
+
+        List<List<Point3D>> palettes = new ArrayList<>(Collections.nCopies(maxK, (List<Point3D>) null));
+        int[][] clusterMaps = new int[maxK][];
+        for (int k = maxK; k >= 1; k--) {
+            palettes.set(k - 1, paletteOf(active, means));
+            clusterMaps[k - 1] = clusterMapOf(active, mergedInto);
+            if (k == 1) {
+                break;
+            }
+
+            int bestA = 0;
+            int bestB = 1;
+            double minCost = Double.MAX_VALUE;
+            for (int a = 0; a < active.size(); a++) {
+                for (int b = a + 1; b < active.size(); b++) {
+                    double cost = wardCost(weight, means, active.get(a), active.get(b));
+                    if (cost < minCost) {
+                        minCost = cost;
+                        bestA = a;
+                        bestB = b;
+                    }
+                }
+            }
+
+            int keep = active.get(bestA);
+            int remove = active.remove(bestB);
+            long total = weight[keep] + weight[remove];
+            if (total > 0) {
+                sumX[keep] += sumX[remove];
+                sumY[keep] += sumY[remove];
+                sumZ[keep] += sumZ[remove];
+                means[keep] = new Point3D(sumX[keep] / total, sumY[keep] / total, sumZ[keep] / total);
+            }
+            weight[keep] = total;
+            for (int i = 0; i < maxK; i++) {
+                if (mergedInto[i] == remove) {
+                    mergedInto[i] = keep;
+                }
+            }
+        }
+        return new PaletteHierarchy(palettes, clusterMaps, clusterNo);
+    }
+
+    /**
+     * Returns the largest number of colors, the one the image was clustered with
+     *
+     * @return An {@link Integer int} - The largest number of colors
+     */
+    public int getMaxK() {
+        return palettes.size();
+    }
+
+    /**
+     * Returns the palette with the passed number of colors
+     *
+     * @param k An {@link Integer int}: The number of colors, from 1 to {@link #getMaxK()}
+     * @return A {@link List} of {@link Point3D} - The colors of the palette
+     */
+    public List<Point3D> getPalette(int k) {
+        checkK(k);
+        return palettes.get(k - 1);
+    }
+
+    /**
+     * Replaces the centroids of the passed {@link ColorData} with the palette with the passed number of colors and
+     * moves every pixel to the color its original cluster was merged into. Takes microseconds, as no distance is
+     * computed.
+     *
+     * @param colorData A {@link ColorData} object: The instance the hierarchy was built from
+     * @param k         An {@link Integer int}: The number of colors, from 1 to {@link #getMaxK()}
+     */
+    public void applyTo(ColorData colorData, int k) {
+        checkK(k);
+        if (colorData.getPixels().size() != originalClusterNo.length) {
+            throw new IllegalArgumentException("The hierarchy was built from another image! Actual value: "
+                    + colorData.getPixels().size());
+        }
+        colorData.mapClusters(getPalette(k), originalClusterNo, clusterMaps[k - 1]);
+    }
+
+    /**
+     * Checks that a palette with the passed number of colors exists
+     *
+     * @param k The number of colors
+     */
+    private void checkK(int k) {
+        if (k < 1 || k > palettes.size()) {
+            throw new IllegalArgumentException("Number of colors has to be between 1 and " + palettes.size()
+                    + "! Actual value: " + k);
+        }
+    }
+
+    /**
+     * Calculates by how much merging two clusters increases the Sum of Squared Errors
+     *
+     * @param weight The number of pixels of each cluster
+     * @param means  The mean of each cluster
+     * @param a      The number of the first cluster
+     * @param b      The number of the second cluster
+     * @return A {@link Double double} - The increase of the Sum of Squared Errors
+     */
+    private static double wardCost(long[] weight, Point3D[] means, int a, int b) {
+        long total = weight[a] + weight[b];
+        if (total == 0) {
+            return 0.0;
+        }
+        double squaredDistance = ColorData.euclideanDistance(means[a], means[b]);
+        squaredDistance *= squaredDistance;
+        return (double) weight[a] * weight[b] / total * squaredDistance;
+    }
+
+    /**
+     * Collects the means of the active clusters
+     *
+     * @param active The active clusters
+     * @param means  The mean of each cluster
+     * @return A {@link List} of {@link Point3D} - The palette of the active clusters
+     */
+    private static List<Point3D> paletteOf(List<Integer> active, Point3D[] means) {
+        List<Point3D> palette = new ArrayList<>();
+        for (int cluster : active) {
+            palette.add(means[cluster]);
+        }
+        return Collections.unmodifiableList(palette);
+    }
+
+    /**
+     * Maps every original cluster to the index of the active cluster it was merged into
+     *
+     * @param active     The active clusters
+     * @param mergedInto The active cluster each original cluster was merged into
+     * @return An {@link Integer int} array - The index in the palette for every original cluster
+     */
+    private static int[] clusterMapOf(List<Integer> active, int[] mergedInto) {
+        int[] map = new int[mergedInto.length];
+        for (int i = 0; i < mergedInto.length; i++) {
+            map[i] = active.indexOf(mergedInto[i]);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,127 @@
+package de.colorscheme.clustering;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The {@link KMeansMode#PARALLEL parallel} engine for the KMeans clustering process. <br>
+ * Each iteration splits the pixels into chunks of {@link #CHUNK_SIZE} pixels which are processed on a
+ * {@link ForkJoinPool}. Every task assigns the pixels of its chunk to their nearest centroid and accumulates the sums,
+ * counts and squared lengths of its chunk in its own {@link ClusterSums}. The partial sums are merged and the new
+ * centroids and the Sum of Squared Errors are calculated from the merged sums. <br>
+ * The chunks and the order in which they are merged only depend on the number of pixels, so the result does not depend
+ * on the number of threads.
+ *
+ * @author &copy; 2024 Elisa Johanna Woelk | elisa-johanna.woelk@outlook.de | @fenris_22127
+ * @version 1.0
+ * @since 18.0.1
+ */
+final class ParallelKMeans implements KMeansStep {
+
+    /**
+     * The maximum number of pixels processed by a single task
+     */
+    private static final int CHUNK_SIZE = 8192;
+
+    /**
+     * The {@link ForkJoinPool} running the tasks
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates the engine with its own {@link ForkJoinPool}
+     *
+     * @param threads An {@link Integer int}: The number of threads of the pool
+     */
+    ParallelKMeans(int threads) {
+        pool = new ForkJoinPool(threads);
+    }
+
+    @Override
+    public double iterate(ColorData colorData, int totalCentroids) {
+        double[] centroids = KMeans.toArray(colorData.getCentroids());
+        ClusterSums sums = pool.invoke(
+                new AssignTask(colorData, centroids, totalCentroids, 0, colorData.getPixels().size()));
+        return sums.updateCentroids(colorData.getCentroids());
+    }
+
+    /**
+     * Shuts the {@link ForkJoinPool} down
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * Assigns the pixels of a range to their nearest centroid and returns the {@link ClusterSums} of the range. <br>
+     * Ranges larger than {@link #CHUNK_SIZE} are split in half.
+     */
+    private static final class AssignTask extends RecursiveTask<ClusterSums> {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The instance used for all processes for the currently inspected image
+         */
+        private final transient ColorData colorData;
+        /**
+         * The x, y and z coordinates of all centroids, one after another
+         */
+        private final double[] centroids;
+        /**
+         * The number of centroids
+         */
+        private final int totalCentroids;
+        /**
+         * The index of the first pixel of the range
+         */
+        private final int from;
+        /**
+         * The index after the last pixel of the range
+         */
+        private final int to;
+
+        AssignTask(ColorData colorData, double[] centroids, int totalCentroids, int from, int to) {
+            this.colorData = colorData;
+            this.centroids = centroids;
+            this.totalCentroids = totalCentroids;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected ClusterSums compute() {
+            if (to - from > CHUNK_SIZE) {
+                int mid = (from + to) >>> 1;
+                AssignTask left = new AssignTask(colorData, centroids, totalCentroids, from, mid);
+                AssignTask right = new AssignTask(colorData, centroids, totalCentroids, mid, to);
+                left.fork();
+                ClusterSums sums = right.compute();
+                ClusterSums leftSums = left.join();
+                leftSums.merge(sums);
+                return leftSums;
+            }
+            return assignRange();
+        }
+
+        /**
+         * Assigns every pixel of the range to its nearest centroid and adds it to the sums of its cluster
+         *
+         * @return A {@link ClusterSums} object - The sums of the range
+         */
+        private ClusterSums assignRange() {
+            PixelStore pixels = colorData.getPixels();
+            ClusterSums sums = new ClusterSums(totalCentroids);
+            for (int p = from; p < to; p++) {
+                double x = pixels.getX(p);
+                double y = pixels.getY(p);
+                double z = pixels.getZ(p);
+                int nearest = KMeans.nearestCentroid(centroids, totalCentroids, x, y, z);
+                colorData.setClusterNo(p, nearest);
+                sums.add(nearest, x, y, z, pixels.getWeight(p));
+            }
+            return sums;
+        }
+    }
+}
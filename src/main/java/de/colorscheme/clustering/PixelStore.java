@@ -0,0 +1,246 @@
+package de.colorscheme.clustering;
+
+import java.util.Arrays;
+
+/**
+ * Stores the colors of all recorded pixels in flat primitive arrays, one array per color channel. <br>
+ * Replaces a {@link java.util.LinkedList LinkedList} of boxed pixel objects: Each pixel only takes up the space of
+ * its three channel values and every pixel can be accessed by its index in constant time, so that {@link KMeans} and
+ * {@link ColorData} can traverse all pixels in a single linear scan.
+ * <ul>
+ *     <li>
+ *         {@link #getX(int) x} - The red value of the pixel
+ *     </li>
+ *     <li>
+ *         {@link #getY(int) y} - The green value of the pixel
+ *     </li>
+ *     <li>
+ *         {@link #getZ(int) z} - The blue value of the pixel
+ *     </li>
+ * </ul>
+ * A store can also be {@link #isWeighted() weighted}: Each entry then stands for a color that occurs
+ * {@link #getWeight(int) several times} in the image, e.g. a bin of a {@link ColorHistogram}.
+ *
+ * @author &copy; 2024 Elisa Johanna Woelk | elisa-johanna.woelk@outlook.de | @fenris_22127
+ * @version 1.0
+ * @since 18.0.1
+ */
+public class PixelStore {
+
+    /**
+     * The number of pixels the arrays are created with, if no capacity is passed to the constructor
+     */
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * The x coordinate (red value) of each pixel
+     */
+    private float[] x;
+    /**
+     * The y coordinate (green value) of each pixel
+     */
+    private float[] y;
+    /**
+     * The z coordinate (blue value) of each pixel
+     */
+    private float[] z;
+    /**
+     * The number of pixels each entry stands for, or {@code null} if every entry stands for exactly one pixel
+     */
+    private int[] weight;
+    /**
+     * The number of pixels stored
+     */
+    private int size = 0;
+    /**
+     * The sum of the weights of all entries, equal to the number of pixels of the image the store was created from
+     */
+    private long totalWeight = 0;
+
+    /**
+     * Creates an empty {@link PixelStore} with room for {@link #DEFAULT_CAPACITY} pixels
+     */
+    public PixelStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty {@link PixelStore} with room for the passed number of pixels
+     *
+     * @param capacity An {@link Integer int}: The number of pixels that can be stored before the arrays have to grow
+     */
+    public PixelStore(int capacity) {
+        this(capacity, false);
+    }
+
+    /**
+     * Creates an empty {@link PixelStore} with room for the passed number of entries
+     *
+     * @param capacity An {@link Integer int}: The number of entries that can be stored before the arrays have to grow
+     * @param weighted A {@link Boolean boolean}: Whether each entry stores the number of pixels it stands for
+     */
+    public PixelStore(int capacity, boolean weighted) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative! Actual capacity: " + capacity);
+        }
+        x = new float[capacity];
+        y = new float[capacity];
+        z = new float[capacity];
+        weight = weighted ? new int[capacity] : null;
+    }
+
+    /**
+     * Adds a pixel to the end of the store, growing the arrays if necessary
+     *
+     * @param px The x coordinate (red value) of the pixel
+     * @param py The y coordinate (green value) of the pixel
+     * @param pz The z coordinate (blue value) of the pixel
+     * @return An {@link Integer int}: The index of the added pixel
+     */
+    public int add(float px, float py, float pz) {
+        return add(px, py, pz, 1);
+    }
+
+    /**
+     * Adds an entry standing for the passed number of pixels to the end of the store, growing the arrays if necessary
+     *
+     * @param px    The x coordinate (red value) of the entry
+     * @param py    The y coordinate (green value) of the entry
+     * @param pz    The z coordinate (blue value) of the entry
+     * @param count The number of pixels of that color. Must be 1, if the store is not {@link #isWeighted() weighted}
+     * @return An {@link Integer int}: The index of the added entry
+     */
+    public int add(float px, float py, float pz, int count) {
+        if (weight == null && count != 1) {
+            throw new IllegalStateException("Only weighted stores accept a pixel count! Actual count: " + count);
+        }
+        if (size == x.length) {
+            grow();
+        }
+        x[size] = px;
+        y[size] = py;
+        z[size] = pz;
+        if (weight != null) {
+            weight[size] = count;
+        }
+        totalWeight += count;
+        return size++;
+    }
+
+    /**
+     * Doubles the capacity of the arrays
+     */
+    private void grow() {
+        int newCapacity = Math.max(DEFAULT_CAPACITY, x.length * 2);
+        x = Arrays.copyOf(x, newCapacity);
+        y = Arrays.copyOf(y, newCapacity);
+        z = Arrays.copyOf(z, newCapacity);
+        if (weight != null) {
+            weight = Arrays.copyOf(weight, newCapacity);
+        }
+    }
+
+    /**
+     * Returns the number of pixels stored
+     *
+     * @return An {@link Integer int}: The number of pixels stored
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of pixels of the image the store was created from, which is the sum of all
+     * {@link #getWeight(int) weights}
+     *
+     * @return A {@link Long long}: The number of pixels all entries stand for
+     */
+    public long getTotalWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * Returns whether the entries store the number of pixels they stand for
+     *
+     * @return A {@link Boolean boolean}: Whether the store is weighted
+     */
+    public boolean isWeighted() {
+        return weight != null;
+    }
+
+    /**
+     * Returns the number of pixels the entry at the passed index stands for
+     *
+     * @param index The index of the entry
+     * @return An {@link Integer int}: The weight of the entry, always 1 if the store is not weighted
+     */
+    public int getWeight(int index) {
+        return weight == null ? 1 : weight[index];
+    }
+
+    /**
+     * Returns the x coordinate (red value) of the pixel at the passed index
+     *
+     * @param index The index of the pixel
+     * @return A {@link Float float}: The x coordinate of the pixel
+     */
+    public float getX(int index) {
+        return x[index];
+    }
+
+    /**
+     * Returns the y coordinate (green value) of the pixel at the passed index
+     *
+     * @param index The index of the pixel
+     * @return A {@link Float float}: The y coordinate of the pixel
+     */
+    public float getY(int index) {
+        return y[index];
+    }
+
+    /**
+     * Returns the z coordinate (blue value) of the pixel at the passed index
+     *
+     * @param index The index of the pixel
+     * @return A {@link Float float}: The z coordinate of the pixel
+     */
+    public float getZ(int index) {
+        return z[index];
+    }
+
+    /**
+     * Returns the backing array of x coordinates for hot loops. Only the first {@link #size()} elements are valid.
+     *
+     * @return A {@link Float float} array: The x coordinates of all pixels
+     */
+    float[] xs() {
+        return x;
+    }
+
+    /**
+     * Returns the backing array of y coordinates for hot loops. Only the first {@link #size()} elements are valid.
+     *
+     * @return A {@link Float float} array: The y coordinates of all pixels
+     */
+    float[] ys() {
+        return y;
+    }
+
+    /**
+     * Returns the backing array of z coordinates for hot loops. Only the first {@link #size()} elements are valid.
+     *
+     * @return A {@link Float float} array: The z coordinates of all pixels
+     */
+    float[] zs() {
+        return z;
+    }
+
+    /**
+     * Returns the backing array of weights for hot loops. Only the first {@link #size()} elements are valid.
+     *
+     * @return An {@link Integer int} array: The weights of all entries, or {@code null} if the store is not weighted
+     */
+    int[] ws() {
+        return weight;
+    }
+}
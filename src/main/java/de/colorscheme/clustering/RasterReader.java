@@ -0,0 +1,114 @@
+package de.colorscheme.clustering;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+
+/**
+ * Reads the pixels of a {@link BufferedImage} a whole row at a time into an {@code int} array, without creating an
+ * object per pixel. <br>
+ * For the image types most decoders produce, the values are copied straight out of the backing {@link DataBuffer}:
+ * <ul>
+ *     <li>
+ *         {@link BufferedImage#TYPE_INT_RGB} and {@link BufferedImage#TYPE_INT_ARGB} from a {@link DataBufferInt},
+ *     </li>
+ *     <li>
+ *         {@link BufferedImage#TYPE_3BYTE_BGR}, e.g. from a JPEG, and {@link BufferedImage#TYPE_4BYTE_ABGR}, e.g. from
+ *         a PNG, from a {@link DataBufferByte}.
+ *     </li>
+ * </ul>
+ * All other types are read with {@link BufferedImage#getRGB(int, int, int, int, int[], int, int)} one row at a time,
+ * which converts their colors to sRGB. Either way, every pixel gets the same value as from
+ * {@link BufferedImage#getRGB(int, int)}, apart from the alpha channel, which is left out.
+ *
+ * @author &copy; 2024 Elisa Johanna Woelk | elisa-johanna.woelk@outlook.de | @fenris_22127
+ * @version 1.0
+ * @since 18.0.1
+ */
+final class RasterReader {
+
+    /**
+     * Private constructor to hide the public one
+     */
+    private RasterReader() {
+    }
+
+    /**
+     * Reads a row of the passed image
+     *
+     * @param image The {@link BufferedImage} to read
+     * @param y     The index of the row
+     * @param row   The array the colors are written to, as {@code 0xRRGGBB}, at least as long as the image is wide
+     */
+    static void readRow(BufferedImage image, int y, int[] row) {
+        Raster raster = image.getRaster();
+        DataBuffer buffer = raster.getDataBuffer();
+        switch (image.getType()) {
+            case BufferedImage.TYPE_INT_RGB:
+            case BufferedImage.TYPE_INT_ARGB:
+                if (raster.getSampleModel() instanceof SinglePixelPackedSampleModel) {
+                    readIntRow(raster, (DataBufferInt) buffer, y, row);
+                    return;
+                }
+                break;
+            case BufferedImage.TYPE_3BYTE_BGR:
+            case BufferedImage.TYPE_4BYTE_ABGR:
+                if (raster.getSampleModel() instanceof ComponentSampleModel) {
+                    readByteRow(raster, (DataBufferByte) buffer, y, row);
+                    return;
+                }
+                break;
+            default:
+                break;
+        }
+        image.getRGB(0, y, image.getWidth(), 1, row, 0, image.getWidth());
+        for (int x = 0; x < image.getWidth(); x++) {
+            row[x] &= 0xFFFFFF;
+        }
+    }
+
+    /**
+     * Copies a row of an image storing every pixel as a single {@code int}
+     *
+     * @param raster The {@link Raster} of the image
+     * @param buffer The {@link DataBufferInt} backing the raster
+     * @param y      The index of the row
+     * @param row    The array the colors are written to
+     */
+    private static void readIntRow(Raster raster, DataBufferInt buffer, int y, int[] row) {
+        SinglePixelPackedSampleModel model = (SinglePixelPackedSampleModel) raster.getSampleModel();
+        int[] data = buffer.getData();
+        int offset = buffer.getOffset() + model.getOffset(-raster.getSampleModelTranslateX(),
+                y - raster.getSampleModelTranslateY());
+        for (int x = 0; x < raster.getWidth(); x++) {
+            row[x] = data[offset + x] & 0xFFFFFF;
+        }
+    }
+
+    /**
+     * Copies a row of an image storing every channel of a pixel as a separate {@code byte}
+     *
+     * @param raster The {@link Raster} of the image
+     * @param buffer The {@link DataBufferByte} backing the raster
+     * @param y      The index of the row
+     * @param row    The array the colors are written to
+     */
+    private static void readByteRow(Raster raster, DataBufferByte buffer, int y, int[] row) {
+        ComponentSampleModel model = (ComponentSampleModel) raster.getSampleModel();
+        byte[] data = buffer.getData();
+        int pixelStride = model.getPixelStride();
+        int modelX = -raster.getSampleModelTranslateX();
+        int modelY = y - raster.getSampleModelTranslateY();
+        int red = buffer.getOffset() + model.getOffset(modelX, modelY, 0);
+        int green = buffer.getOffset() + model.getOffset(modelX, modelY, 1);
+        int blue = buffer.getOffset() + model.getOffset(modelX, modelY, 2);
+        for (int x = 0; x < raster.getWidth(); x++) {
+            int i = x * pixelStride;
+            row[x] = ((data[red + i] & 0xFF) << 16) | ((data[green + i] & 0xFF) << 8) | (data[blue + i] & 0xFF);
+        }
+    }
+}
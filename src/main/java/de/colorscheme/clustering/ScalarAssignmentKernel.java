@@ -0,0 +1,51 @@
+package de.colorscheme.clustering;
+
+/**
+ * The {@link AssignmentKernel} comparing one pixel against one centroid at a time. Runs on every Java version and is
+ * used whenever the {@code jdk.incubator.vector} module isn't available.
+ *
+ * @author &copy; 2024 Elisa Johanna Woelk | elisa-johanna.woelk@outlook.de | @fenris_22127
+ * @version 1.0
+ * @since 18.0.1
+ */
+final class ScalarAssignmentKernel implements AssignmentKernel {
+
+    @Override
+    public void assign(float[] x, float[] y, float[] z, int from, int to, float[] centroids, int totalCentroids,
+                       int[] nearest) {
+        assignRange(x, y, z, from, to, centroids, totalCentroids, nearest, 0);
+    }
+
+    /**
+     * Finds the nearest centroid for every pixel of a range, also used for the pixels left over by the vectorized
+     * kernel
+     *
+     * @param x              The red values of all pixels
+     * @param y              The green values of all pixels
+     * @param z              The blue values of all pixels
+     * @param from           The index of the first pixel of the range
+     * @param to             The index after the last pixel of the range
+     * @param centroids      The x, y and z coordinates of all centroids, one after another
+     * @param totalCentroids The number of centroids
+     * @param nearest        The array the number of the nearest centroid of each pixel is written to
+     * @param offset         The index in {@code nearest} the result for the pixel at {@code from} is written to
+     */
+    static void assignRange(float[] x, float[] y, float[] z, int from, int to, float[] centroids, int totalCentroids,
+                            int[] nearest, int offset) {
+        for (int p = from; p < to; p++) {
+            int best = 0;
+            float minDist = Float.MAX_VALUE;
+            for (int i = 0; i < totalCentroids; i++) {
+                float dx = x[p] - centroids[i * 3];
+                float dy = y[p] - centroids[i * 3 + 1];
+                float dz = z[p] - centroids[i * 3 + 2];
+                float dist = dx * dx + dy * dy + dz * dz;
+                if (dist < minDist) {
+                    minDist = dist;
+                    best = i;
+                }
+            }
+            nearest[offset + p - from] = best;
+        }
+    }
+}
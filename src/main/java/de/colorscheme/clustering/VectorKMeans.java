@@ -0,0 +1,94 @@
+package de.colorscheme.clustering;
+
+import javafx.geometry.Point3D;
+
+import java.util.List;
+
+/**
+ * The {@link KMeansMode#VECTOR vectorized} engine for the KMeans clustering process. <br>
+ * The pixels are assigned in blocks of {@link #BLOCK_SIZE} pixels by an {@link AssignmentKernel} working directly on
+ * the channel arrays of the {@link PixelStore}, without a {@link Point3D} or a square root per distance. If the JVM
+ * runs on Java 17 or newer with {@code --add-modules jdk.incubator.vector}, the kernel compares several pixels per
+ * instruction, otherwise one pixel at a time. Both kernels return the same clusters, so the result doesn't depend on
+ * the JVM. <br>
+ * The distances are compared in {@code float} precision, so on a near tie a pixel may end up in a different cluster
+ * than with {@link KMeansMode#SEQUENTIAL}.
+ *
+ * @author &copy; 2024 Elisa Johanna Woelk | elisa-johanna.woelk@outlook.de | @fenris_22127
+ * @version 1.0
+ * @since 18.0.1
+ */
+final class VectorKMeans implements KMeansStep {
+
+    /**
+     * The name of the {@link AssignmentKernel} using the Vector API, which only exists in the Java 17 part of the jar
+     */
+    private static final String VECTOR_KERNEL = "de.colorscheme.clustering.VectorAssignmentKernel";
+    /**
+     * The fastest {@link AssignmentKernel} available on this JVM
+     */
+    private static final AssignmentKernel KERNEL = loadKernel();
+    /**
+     * The number of pixels assigned per call of the {@link #KERNEL}
+     */
+    private static final int BLOCK_SIZE = 4096;
+
+    /**
+     * The number of the nearest centroid of each pixel of the current block
+     */
+    private final int[] nearest = new int[BLOCK_SIZE];
+
+    @Override
+    public double iterate(ColorData colorData, int totalCentroids) {
+        PixelStore pixels = colorData.getPixels();
+        float[] centroids = toFloatArray(colorData.getCentroids());
+        for (int from = 0; from < pixels.size(); from += BLOCK_SIZE) {
+            int to = Math.min(from + BLOCK_SIZE, pixels.size());
+            KERNEL.assign(pixels.xs(), pixels.ys(), pixels.zs(), from, to, centroids, totalCentroids, nearest);
+            for (int p = from; p < to; p++) {
+                colorData.setClusterNo(p, nearest[p - from]);
+            }
+        }
+        return colorData.recomputeCentroids(totalCentroids);
+    }
+
+    /**
+     * Returns the fastest {@link AssignmentKernel} available on this JVM
+     *
+     * @return An {@link AssignmentKernel} - The kernel used by this engine
+     */
+    static AssignmentKernel getKernel() {
+        return KERNEL;
+    }
+
+    /**
+     * Loads the {@link AssignmentKernel} using the Vector API, falling back to the {@link ScalarAssignmentKernel} if
+     * the JVM is older than Java 17 or the {@code jdk.incubator.vector} module wasn't added
+     *
+     * @return An {@link AssignmentKernel} - The fastest kernel available
+     */
+    private static AssignmentKernel loadKernel() {
+        try {
+            return (AssignmentKernel) Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return new ScalarAssignmentKernel();
+        }
+    }
+
+    /**
+     * Copies the coordinates of the passed centroids into a flat {@code float} array, like {@link KMeans#toArray(List)}
+     *
+     * @param centroidList The {@link List} of centroids
+     * @return A {@link Float float} array - The x, y and z coordinates of all centroids, one after another
+     */
+    private static float[] toFloatArray(List<Point3D> centroidList) {
+        float[] array = new float[centroidList.size() * 3];
+        for (int i = 0; i < centroidList.size(); i++) {
+            Point3D centroid = centroidList.get(i);
+            array[i * 3] = (float) centroid.getX();
+            array[i * 3 + 1] = (float) centroid.getY();
+            array[i * 3 + 2] = (float) centroid.getZ();
+        }
+        return array;
+    }
+}
@@ -0,0 +1,393 @@
+package de.colorscheme.clustering;
+
+import javafx.geometry.Point3D;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@link PaletteEngine#WU Wu} engine for determining the main colors of an image, after Xiaolin Wu's
+ * variance-minimizing color quantizer. <br>
+ * <ol>
+ *     <li>
+ *         Every pixel is counted in a {@link #SIDE} x {@link #SIDE} x {@link #SIDE} cube of bins, together with the
+ *         sums of its values and of its squared values.
+ *     </li>
+ *     <li>
+ *         The bins are summed up cumulatively along all three axes, so the number of pixels, the sums and the variance
+ *         of any box of bins can be read from eight table entries.
+ *     </li>
+ *     <li>
+ *         Starting with a box around the whole cube, the box with the largest variance is split in two, at the plane
+ *         that leaves the smallest variance in both halves, until there are as many boxes as colors requested.
+ *     </li>
+ *     <li>
+ *         The mean colors of the boxes form the palette.
+ *     </li>
+ * </ol>
+ * Once the pixels are counted, the time only depends on the size of the cube, not on the number of pixels. The
+ * palette can also be used as the {@link KMeansInitialization#WU starting centroids} of {@link KMeans}, which then
+ * needs only a few iterations.
+ *
+ * @author &copy; 2024 Elisa Johanna Woelk | elisa-johanna.woelk@outlook.de | @fenris_22127
+ * @version 1.0
+ * @since 18.0.1
+ */
+public final class WuQuantizer implements PaletteExtractor {
+
+    /**
+     * The number of bins along each axis of the cube
+     */
+    private static final int BINS = 32;
+    /**
+     * The length of each axis of the tables, with an empty first entry that simplifies the cumulative sums
+     */
+    private static final int SIDE = BINS + 1;
+    /**
+     * The number of bits a color value is shifted right by to get its bin
+     */
+    private static final int SHIFT = 3;
+    /**
+     * The red axis
+     */
+    private static final int RED = 0;
+    /**
+     * The green axis
+     */
+    private static final int GREEN = 1;
+    /**
+     * The blue axis
+     */
+    private static final int BLUE = 2;
+
+    @Override
+    public void extractPalette(ColorData colorData, int totalColors) {
+        colorData.setPalette(palette(colorData.getPixels(), totalColors), totalColors);
+    }
+
+    /**
+     * Determines the palette of the passed pixels
+     *
+     * @param pixels      The pixels of the image
+     * @param totalColors The number of colors requested
+     * @return A {@link List} of {@link Point3D Point3Ds} - The palette, with fewer colors than requested if the pixels
+     * fall into fewer bins
+     */
+    static List<Point3D> palette(PixelStore pixels, int totalColors) {
+        Moments moments = new Moments(pixels);
+
+        Box[] boxes = new Box[totalColors];
+        double[] variances = new double[totalColors];
+        boxes[0] = new Box(0, BINS, 0, BINS, 0, BINS);
+        int boxCount = 1;
+        int next = 0;
+        while (boxCount < totalColors) {
+            Box second = moments.cut(boxes[next]);
+            if (second != null) {
+                boxes[boxCount] = second;
+                variances[next] = boxes[next].volume() > 1 ? moments.variance(boxes[next]) : 0.0;
+                variances[boxCount] = second.volume() > 1 ? moments.variance(second) : 0.0;
+                boxCount++;
+            } else {
+                variances[next] = 0.0;
+            }
+
+            next = 0;
+            for (int i = 1; i < boxCount; i++) {
+                if (variances[i] > variances[next]) {
+                    next = i;
+                }
+            }
+            if (variances[next] <= 0.0) {
+                break;
+            }
+        }
+
+        List<Point3D> palette = new ArrayList<>();
+        for (int i = 0; i < boxCount; i++) {
+            double weight = moments.volume(boxes[i], moments.weight);
+            if (weight > 0) {
+                palette.add(new Point3D(moments.volume(boxes[i], moments.red) / weight,
+                        moments.volume(boxes[i], moments.green) / weight,
+                        moments.volume(boxes[i], moments.blue) / weight));
+            }
+        }
+        return palette;
+    }
+
+    /**
+     * Returns the index of a bin in the flat tables
+     *
+     * @param r The red index, between 0 and {@link #BINS}
+     * @param g The green index, between 0 and {@link #BINS}
+     * @param b The blue index, between 0 and {@link #BINS}
+     * @return An {@link Integer int} - The index in the tables
+     */
+    private static int index(int r, int g, int b) {
+        return (r * SIDE + g) * SIDE + b;
+    }
+
+    /**
+     * The cumulative moment tables: the number of pixels, the sums of their red, green and blue values and the sum of
+     * their squared lengths in all bins up to and including each index
+     */
+    private static final class Moments {
+        /**
+         * The cumulative number of pixels
+         */
+        private final double[] weight = new double[SIDE * SIDE * SIDE];
+        /**
+         * The cumulative sum of the red values
+         */
+        private final double[] red = new double[SIDE * SIDE * SIDE];
+        /**
+         * The cumulative sum of the green values
+         */
+        private final double[] green = new double[SIDE * SIDE * SIDE];
+        /**
+         * The cumulative sum of the blue values
+         */
+        private final double[] blue = new double[SIDE * SIDE * SIDE];
+        /**
+         * The cumulative sum of the squared lengths
+         */
+        private final double[] squares = new double[SIDE * SIDE * SIDE];
+
+        /**
+         * Counts the pixels in their bins and sums the bins up cumulatively
+         *
+         * @param pixels The pixels of the image
+         */
+        Moments(PixelStore pixels) {
+            for (int p = 0; p < pixels.size(); p++) {
+                double x = pixels.getX(p);
+                double y = pixels.getY(p);
+                double z = pixels.getZ(p);
+                int w = pixels.getWeight(p);
+                int i = index(bin(x), bin(y), bin(z));
+                weight[i] += w;
+                red[i] += x * w;
+                green[i] += y * w;
+                blue[i] += z * w;
+                squares[i] += (x * x + y * y + z * z) * w;
+            }
+            accumulate(weight);
+            accumulate(red);
+            accumulate(green);
+            accumulate(blue);
+            accumulate(squares);
+        }
+
+        /**
+         * Returns the bin of a color value, starting at 1 as the first entry of every axis stays empty
+         *
+         * @param value The color value
+         * @return An {@link Integer int} - The bin between 1 and {@link #BINS}
+         */
+        private static int bin(double value) {
+            return (Math.max(0, Math.min(255, (int) Math.round(value))) >> SHIFT) + 1;
+        }
+
+        /**
+         * Turns a table of bins into a table of cumulative sums along all three axes
+         *
+         * @param table The table
+         */
+        private static void accumulate(double[] table) {
+            for (int r = 1; r < SIDE; r++) {
+                double[] area = new double[SIDE];
+                for (int g = 1; g < SIDE; g++) {
+                    double line = 0.0;
+                    for (int b = 1; b < SIDE; b++) {
+                        line += table[index(r, g, b)];
+                        area[b] += line;
+                        table[index(r, g, b)] = table[index(r - 1, g, b)] + area[b];
+                    }
+                }
+            }
+        }
+
+        /**
+         * Sums up a table over a box, from the eight corners of the box
+         *
+         * @param box   The box
+         * @param table The cumulative table
+         * @return A {@link Double double} - The sum over the box
+         */
+        double volume(Box box, double[] table) {
+            return table[index(box.r1, box.g1, box.b1)]
+                    - table[index(box.r1, box.g1, box.b0)]
+                    - table[index(box.r1, box.g0, box.b1)]
+                    + table[index(box.r1, box.g0, box.b0)]
+                    - table[index(box.r0, box.g1, box.b1)]
+                    + table[index(box.r0, box.g1, box.b0)]
+                    + table[index(box.r0, box.g0, box.b1)]
+                    - table[index(box.r0, box.g0, box.b0)];
+        }
+
+        /**
+         * Sums up a table over the part of a box below its lower bound along an axis, the part that is independent of
+         * where the box is cut
+         *
+         * @param box   The box
+         * @param axis  The axis
+         * @param table The cumulative table
+         * @return A {@link Double double} - The part of the sum subtracted for the lower bound
+         */
+        private double bottom(Box box, int axis, double[] table) {
+            switch (axis) {
+                case RED:
+                    return -table[index(box.r0, box.g1, box.b1)] + table[index(box.r0, box.g1, box.b0)]
+                            + table[index(box.r0, box.g0, box.b1)] - table[index(box.r0, box.g0, box.b0)];
+                case GREEN:
+                    return -table[index(box.r1, box.g0, box.b1)] + table[index(box.r1, box.g0, box.b0)]
+                            + table[index(box.r0, box.g0, box.b1)] - table[index(box.r0, box.g0, box.b0)];
+                default:
+                    return -table[index(box.r1, box.g1, box.b0)] + table[index(box.r1, box.g0, box.b0)]
+                            + table[index(box.r0, box.g1, box.b0)] - table[index(box.r0, box.g0, box.b0)];
+            }
+        }
+
+        /**
+         * Sums up a table over the part of a box up to a cutting position along an axis, without the part returned by
+         * {@link #bottom(Box, int, double[])}
+         *
+         * @param box      The box
+         * @param axis     The axis
+         * @param position The cutting position
+         * @param table    The cumulative table
+         * @return A {@link Double double} - The part of the sum depending on the cutting position
+         */
+        private double top(Box box, int axis, int position, double[] table) {
+            switch (axis) {
+                case RED:
+                    return table[index(position, box.g1, box.b1)] - table[index(position, box.g1, box.b0)]
+                            - table[index(position, box.g0, box.b1)] + table[index(position, box.g0, box.b0)];
+                case GREEN:
+                    return table[index(box.r1, position, box.b1)] - table[index(box.r1, position, box.b0)]
+                            - table[index(box.r0, position, box.b1)] + table[index(box.r0, position, box.b0)];
+                default:
+                    return table[index(box.r1, box.g1, position)] - table[index(box.r1, box.g0, position)]
+                            - table[index(box.r0, box.g1, position)] + table[index(box.r0, box.g0, position)];
+            }
+        }
+
+        /**
+         * Calculates the weighted variance of the pixels in a box, i.e. their Sum of Squared Errors around their mean
+         *
+         * @param box The box
+         * @return A {@link Double double} - The variance of the box
+         */
+        double variance(Box box) {
+            double r = volume(box, red);
+            double g = volume(box, green);
+            double b = volume(box, blue);
+            return volume(box, squares) - (r * r + g * g + b * b) / volume(box, weight);
+        }
+
+        /**
+         * Finds the cutting position along an axis that maximizes the sum of the squared lengths of the sums of both
+         * halves divided by their number of pixels, which minimizes the variance left in both halves
+         *
+         * @param box    The box
+         * @param axis   The axis
+         * @param first  The first cutting position tried
+         * @param last   The position after the last cutting position tried
+         * @param whole  The sums of the whole box: red, green, blue and the number of pixels
+         * @param result The best value found and its cutting position, -1 if no position leaves pixels in both halves
+         */
+        private void maximize(Box box, int axis, int first, int last, double[] whole, double[] result) {
+            double baseR = bottom(box, axis, red);
+            double baseG = bottom(box, axis, green);
+            double baseB = bottom(box, axis, blue);
+            double baseW = bottom(box, axis, weight);
+            result[0] = 0.0;
+            result[1] = -1;
+            for (int i = first; i < last; i++) {
+                double halfR = baseR + top(box, axis, i, red);
+                double halfG = baseG + top(box, axis, i, green);
+                double halfB = baseB + top(box, axis, i, blue);
+                double halfW = baseW + top(box, axis, i, weight);
+                if (halfW == 0) {
+                    continue;
+                }
+                double value = (halfR * halfR + halfG * halfG + halfB * halfB) / halfW;
+                halfR = whole[0] - halfR;
+                halfG = whole[1] - halfG;
+                halfB = whole[2] - halfB;
+                halfW = whole[3] - halfW;
+                if (halfW == 0) {
+                    continue;
+                }
+                value += (halfR * halfR + halfG * halfG + halfB * halfB) / halfW;
+                if (value > result[0]) {
+                    result[0] = value;
+                    result[1] = i;
+                }
+            }
+        }
+
+        /**
+         * Cuts a box in two along the axis and at the position that leave the smallest variance in both halves. The
+         * passed box is shrunk to the lower half.
+         *
+         * @param box The box to be cut
+         * @return A {@link Box} - The upper half, or {@code null} if the box cannot be cut
+         */
+        Box cut(Box box) {
+            double[] whole = {volume(box, red), volume(box, green), volume(box, blue), volume(box, weight)};
+            double[] maxR = new double[2];
+            double[] maxG = new double[2];
+            double[] maxB = new double[2];
+            maximize(box, RED, box.r0 + 1, box.r1, whole, maxR);
+            maximize(box, GREEN, box.g0 + 1, box.g1, whole, maxG);
+            maximize(box, BLUE, box.b0 + 1, box.b1, whole, maxB);
+
+            Box upper = new Box(box.r0, box.r1, box.g0, box.g1, box.b0, box.b1);
+            if (maxR[0] >= maxG[0] && maxR[0] >= maxB[0]) {
+                if (maxR[1] < 0) {
+                    return null;
+                }
+                box.r1 = (int) maxR[1];
+                upper.r0 = box.r1;
+            } else if (maxG[0] >= maxR[0] && maxG[0] >= maxB[0]) {
+                box.g1 = (int) maxG[1];
+                upper.g0 = box.g1;
+            } else {
+                box.b1 = (int) maxB[1];
+                upper.b0 = box.b1;
+            }
+            return upper;
+        }
+    }
+
+    /**
+     * A box of bins, from the exclusive lower to the inclusive upper bound along each axis
+     */
+    private static final class Box {
+        private int r0;
+        private int r1;
+        private int g0;
+        private int g1;
+        private int b0;
+        private int b1;
+
+        Box(int r0, int r1, int g0, int g1, int b0, int b1) {
+            this.r0 = r0;
+            this.r1 = r1;
+            this.g0 = g0;
+            this.g1 = g1;
+            this.b0 = b0;
+            this.b1 = b1;
+        }
+
+        /**
+         * Returns the number of bins in the box
+         *
+         * @return An {@link Integer int} - The number of bins
+         */
+        int volume() {
+            return (r1 - r0) * (g1 - g0) * (b1 - b0);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package de.colorscheme.output;
 
 import com.itextpdf.text.BaseColor;
 import de.colorscheme.app.AppController;
+import de.colorscheme.utils.ImageScaler;
 import de.fenris.logger.ColorLogger;
 
 import javax.imageio.ImageIO;
@@ -353,13 +354,6 @@ public class ColorWheel {
      * @return A {@link BufferedImage}: The resized image
      */
     private static BufferedImage resize(BufferedImage img, int newWidth, int newHeight) {
-        Image scaledInstance = img.getScaledInstance(newWidth, newHeight, Image.SCALE_SMOOTH);
-        BufferedImage resizedImage = new BufferedImage(newWidth, newHeight, BufferedImage.TYPE_INT_ARGB);
-
-        Graphics2D g2d = resizedImage.createGraphics();
-        g2d.drawImage(scaledInstance, 0, 0, null);
-        g2d.dispose();
-
-        return resizedImage;
+        return ImageScaler.scale(img, newWidth, newHeight);
     }
 }
@@ -14,8 +14,11 @@ import de.fenris.logger.ColorLogger;
 import javafx.geometry.Point3D;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.stream.ImageInputStream;
 import java.awt.*;
-import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
 import java.io.*;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -33,7 +36,6 @@ import java.util.logging.Logger;
 
 import static de.colorscheme.app.AppController.getHarmony;
 import static de.colorscheme.app.AppController.getResBundle;
-import static de.colorscheme.clustering.KMeans.getCentroids;
 import static de.colorscheme.output.ColorWheel.*;
 import static de.colorscheme.utils.PathUtils.*;
 import static java.util.logging.Level.*;
@@ -292,7 +294,7 @@ public class OutputColors {
      */
     private static void addContent(ColorData c, Document doc, Path imagePath) {
         try {
-            if (getCentroids() > 5) {
+            if (c.getCentroids().size() > 5) {
                 regular = fontUtils.getMulishRegular(9);
             } else {
                 regular = fontUtils.getMulishRegular(11);
@@ -338,7 +340,7 @@ public class OutputColors {
             doc.add(space);
             checkNewPage(doc);
             doc.add(new Paragraph(getResBundle().getString("avgTitle").toUpperCase(Locale.ROOT), quattrocentoSansBold));
-            addAverageTable(doc, hsbColors);
+            addAverageTable(c, doc, hsbColors);
 
             space = new Paragraph(new Paragraph(" "));
             space.setMultipliedLeading(2F);
@@ -409,12 +411,12 @@ public class OutputColors {
         doc.add(img);
         float topPosition = 670.5F;
         float spacer = 10.0F;
-        float height = (img.getScaledHeight() - (getCentroids() - 1) * spacer) / getCentroids();
+        float height = (img.getScaledHeight() - (c.getCentroids().size() - 1) * spacer) / c.getCentroids().size();
 
         PdfContentByte canvas = writer.getDirectContent();
 
         ColumnText ct = new ColumnText(canvas);
-        for (int i = 0; i < getCentroids(); i++) {
+        for (int i = 0; i < c.getCentroids().size(); i++) {
             BaseColor color = getColors(c).get(i);
 
             regular.setColor(checkContrast(color));
@@ -485,12 +487,12 @@ public class OutputColors {
         doc.add(img);
         float spacer = 10.0F;
         float topPosition = 670.5F - img.getScaledHeight() - spacer;
-        float width = (img.getScaledWidth() - (getCentroids() - 1) * spacer) / getCentroids();
+        float width = (img.getScaledWidth() - (c.getCentroids().size() - 1) * spacer) / c.getCentroids().size();
         float start = (pageWidth - img.getScaledWidth()) / 2;
 
         PdfContentByte canvas = writer.getDirectContent();
         ColumnText ct = new ColumnText(canvas);
-        for (int i = 0; i < getCentroids(); i++) {
+        for (int i = 0; i < c.getCentroids().size(); i++) {
             BaseColor color = getColors(c).get(i);
             Color awtColor = new Color(color.getRed(), color.getGreen(), color.getBlue());
 
@@ -544,11 +546,12 @@ public class OutputColors {
 
     /**
      * Adds the average colour values of the selected image to a {@link PdfPTable} in the {@link Document}.
+     * @param c The {@link ColorData} object holding the main colours
      * @param doc The {@link Document} to be written in
      * @param hsbColors The average HSB values of the main colours
      * @throws DocumentException If the {@link PdfPTable table} could not be added to the document
      */
-    private static void addAverageTable(Document doc, float[] hsbColors) throws DocumentException {
+    private static void addAverageTable(ColorData c, Document doc, float[] hsbColors) throws DocumentException {
         PdfPTable table = new PdfPTable(2);
         table.setWidthPercentage(100);
         table.setSpacingBefore(14);
@@ -561,7 +564,7 @@ public class OutputColors {
 
         table.addCell(avgHeader);
         table.addCell(valueHeader);
-        String[] averages = getAverage(hsbColors);
+        String[] averages = getAverage(c, hsbColors);
 
         Font mulishSemibold = fontUtils.getMulish(12, FontUtils.FontWeight.SEMI_BOLD, Color.BLACK);
         Paragraph color = new Paragraph(getResBundle().getString("avgColour"), mulishSemibold);
@@ -680,9 +683,9 @@ public class OutputColors {
     private static void addComplementary(ColorData c, Document doc) throws DocumentException {
         addHarmonyHeader(doc, getResBundle().getString("harmonicsComplementary"));
 
-        PdfPTable table = new PdfPTable(getCentroids());
+        PdfPTable table = new PdfPTable(c.getCentroids().size());
         table.setWidthPercentage(100);
-        for (int i = 0; i < getCentroids(); i++) {
+        for (int i = 0; i < c.getCentroids().size(); i++) {
             BaseColor bc = getColors(c).get(i);
             float[] hsb = Color.RGBtoHSB(bc.getRed(), bc.getGreen(), bc.getBlue(), null);
             List<javafx.scene.paint.Color> col = getComplementaryColourList(hsb);
@@ -702,9 +705,9 @@ public class OutputColors {
     private static void addSplitComplementary(ColorData c, Document doc) throws DocumentException {
         addHarmonyHeader(doc, getResBundle().getString("harmonicsSplitComplementary"));
 
-        PdfPTable table = new PdfPTable(getCentroids());
+        PdfPTable table = new PdfPTable(c.getCentroids().size());
         table.setWidthPercentage(100);
-        for (int i = 0; i < getCentroids(); i++) {
+        for (int i = 0; i < c.getCentroids().size(); i++) {
             BaseColor bc = getColors(c).get(i);
             float[] hsb = Color.RGBtoHSB(bc.getRed(), bc.getGreen(), bc.getBlue(), null);
             List<javafx.scene.paint.Color> col = getSplitComplementaryColour(hsb);
@@ -724,9 +727,9 @@ public class OutputColors {
     private static void addMonochromatic(ColorData c, Document doc) throws DocumentException {
         addHarmonyHeader(doc, getResBundle().getString("harmonicsMonochromatic"));
 
-        PdfPTable table = new PdfPTable(getCentroids());
+        PdfPTable table = new PdfPTable(c.getCentroids().size());
         table.setWidthPercentage(100);
-        for (int i = 0; i < getCentroids(); i++) {
+        for (int i = 0; i < c.getCentroids().size(); i++) {
             BaseColor bc = getColors(c).get(i);
             float[] hsb = Color.RGBtoHSB(bc.getRed(), bc.getGreen(), bc.getBlue(), null);
             List<javafx.scene.paint.Color> col = getMonochromaticColour(hsb);
@@ -746,9 +749,9 @@ public class OutputColors {
     private static void addAnalogous(ColorData c, Document doc) throws DocumentException {
         addHarmonyHeader(doc, getResBundle().getString("harmonicsAnalogous"));
 
-        PdfPTable table = new PdfPTable(getCentroids());
+        PdfPTable table = new PdfPTable(c.getCentroids().size());
         table.setWidthPercentage(100);
-        for (int i = 0; i < getCentroids(); i++) {
+        for (int i = 0; i < c.getCentroids().size(); i++) {
             BaseColor bc = getColors(c).get(i);
             float[] hsb = Color.RGBtoHSB(bc.getRed(), bc.getGreen(), bc.getBlue(), null);
             List<javafx.scene.paint.Color> col = getAnalogousColour(hsb);
@@ -768,9 +771,9 @@ public class OutputColors {
     private static void addTriadic(ColorData c, Document doc) throws DocumentException {
         addHarmonyHeader(doc, getResBundle().getString("harmonicsTriadic"));
 
-        PdfPTable table = new PdfPTable(getCentroids());
+        PdfPTable table = new PdfPTable(c.getCentroids().size());
         table.setWidthPercentage(100);
-        for (int i = 0; i < getCentroids(); i++) {
+        for (int i = 0; i < c.getCentroids().size(); i++) {
             BaseColor bc = getColors(c).get(i);
             float[] hsb = Color.RGBtoHSB(bc.getRed(), bc.getGreen(), bc.getBlue(), null);
             List<javafx.scene.paint.Color> col = getTriadicColour(hsb);
@@ -790,9 +793,9 @@ public class OutputColors {
     private static void addTetradic(ColorData c, Document doc) throws DocumentException {
         addHarmonyHeader(doc, getResBundle().getString("harmonicsTetradic"));
 
-        PdfPTable table = new PdfPTable(getCentroids());
+        PdfPTable table = new PdfPTable(c.getCentroids().size());
         table.setWidthPercentage(100);
-        for (int i = 0; i < getCentroids(); i++) {
+        for (int i = 0; i < c.getCentroids().size(); i++) {
             BaseColor bc = getColors(c).get(i);
             float[] hsb = Color.RGBtoHSB(bc.getRed(), bc.getGreen(), bc.getBlue(), null);
             List<javafx.scene.paint.Color> col = getTetradicColour(hsb);
@@ -1042,13 +1045,14 @@ public class OutputColors {
     /**
      * Adds the description of the average HSB values for the main colours to the {@link Document}.
      *
+     * @param c         A {@link ColorData} object: The instance holding the main colours
      * @param hsbColors A {@link Float} array: The average HSB values of the main colours
      * @return A {@link String} array: The description of the average HSB values for the main colours
      */
-    private static String[] getAverage(float[] hsbColors) {
-        hsbColors[0] /= getCentroids();
-        hsbColors[1] /= getCentroids();
-        hsbColors[2] /= getCentroids();
+    private static String[] getAverage(ColorData c, float[] hsbColors) {
+        hsbColors[0] /= c.getCentroids().size();
+        hsbColors[1] /= c.getCentroids().size();
+        hsbColors[2] /= c.getCentroids().size();
 
         String color = getResBundle().getString("avgColorPre") +
                 determineHue(hsbColors[0]);
@@ -1185,19 +1189,41 @@ public class OutputColors {
 
     /**
      * Reads the metadata of the image the passed {@link Path} points to and returns it as a {@link Set} of
-     * {@link MetaData}.
+     * {@link MetaData}. <br>
+     * Only the header of the image is read: the size comes from the {@link ImageReader} and the type, color
+     * components, bit depth and alpha from the {@link ImageTypeSpecifier} the image would be decoded into, so no pixel
+     * is decoded, whatever the size of the image.
      *
      * @param imgPath A {@link Path}: The path to the image to read the metadata from
      * @return A {@link Set} of {@link MetaData}: The metadata of the image
      */
     public static Set<MetaData> readMetaData(Path imgPath) {
-        BufferedImage img;
+        int width;
+        int height;
+        ImageTypeSpecifier imageType;
         BasicFileAttributes attr;
         DateTimeFormatter dateTimeFormatter =
                 DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
 
-        try {
-            img = ImageIO.read(imgPath.toFile());
+        try (ImageInputStream stream = ImageIO.createImageInputStream(imgPath.toFile())) {
+            if (stream == null) {
+                throw new IOException("Could not open the image! Actual value: " + imgPath);
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+            if (!readers.hasNext()) {
+                throw new IOException("No decoder found for the image! Actual value: " + imgPath);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(stream, true, true);
+                width = reader.getWidth(0);
+                height = reader.getHeight(0);
+                //the type the image is decoded into by default, the raw type if the decoder offers none
+                Iterator<ImageTypeSpecifier> imageTypes = reader.getImageTypes(0);
+                imageType = imageTypes.hasNext() ? imageTypes.next() : reader.getRawImageType(0);
+            } finally {
+                reader.dispose();
+            }
             attr = Files.readAttributes(imgPath, BasicFileAttributes.class);
         } catch (IOException e) {
             LOGGER.log(WARNING, "Could not read image to get meta data!", e);
@@ -1225,30 +1251,30 @@ public class OutputColors {
                     return formatTime(attr.lastAccessTime(), dateTimeFormatter);
                 }
                 case FILE_HEIGHT: {
-                    return img.getHeight() + " px";
+                    return height + " px";
                 }
                 case FILE_WIDTH: {
-                    return img.getWidth() + " px";
+                    return width + " px";
                 }
                 case FILE_IMAGE_TYPE: {
-                    return getColorSpace(img.getType());
+                    return getColorSpace(imageType.getBufferedImageType());
                 }
                 case FILE_COLOR_COMPONENTS: {
-                    return String.valueOf(img.getColorModel().getNumComponents());
+                    return String.valueOf(imageType.getColorModel().getNumComponents());
                 }
                 case FILE_BIT_DEPTH: {
-                    return String.valueOf(img.getColorModel().getPixelSize());
+                    return String.valueOf(imageType.getColorModel().getPixelSize());
                 }
                 case FILE_TRANSPARENCY: {
-                    return getTransparency(img);
+                    return getTransparency(imageType.getColorModel());
                 }
                 case FILE_ALPHA: {
-                    return (img.getColorModel().hasAlpha() ?
+                    return (imageType.getColorModel().hasAlpha() ?
                             AppController.getResBundle().getString("metaAlphaYes") :
                             AppController.getResBundle().getString("metaAlphaNo"));
                 }
                 case FILE_ALPHA_TYPE: {
-                    return (img.getColorModel().isAlphaPremultiplied() ?
+                    return (imageType.getColorModel().isAlphaPremultiplied() ?
                             AppController.getResBundle().getString("metaAlphaPremultiplied") :
                             AppController.getResBundle().getString("metaAlphaNotPremultiplied"));
                 }
@@ -1258,8 +1284,8 @@ public class OutputColors {
             }
         });
     }
-    private static String getTransparency(BufferedImage img) {
-        switch (img.getColorModel().getTransparency()) {
+    private static String getTransparency(ColorModel colorModel) {
+        switch (colorModel.getTransparency()) {
             case 1: {
                 return AppController.getResBundle().getString("metaTransparency1");
             }
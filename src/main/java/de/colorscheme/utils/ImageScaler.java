@@ -0,0 +1,236 @@
+package de.colorscheme.utils;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * A utility class for scaling images with an area-averaging filter, the same filter {@link java.awt.Image#SCALE_SMOOTH}
+ * uses, working directly on arrays of the pixels' channels. <br>
+ * Every output pixel is the mean of the source pixels it covers, each weighted by the covered area. The filter is
+ * applied to the rows first and then to the columns, so every source pixel is only touched once. The output rows are
+ * split into bands that are scaled on several threads, each reading the source rows of its band one at a time, so the
+ * image is never copied in full. <br>
+ * Colors of images with an alpha channel are averaged with premultiplied alpha, so transparent pixels don't darken the
+ * edges of the image.
+ *
+ * @author &copy; 2024 Elisa Johanna Woelk | elisa-johanna.woelk@outlook.de | @fenris_22127
+ * @version 1.0
+ * @since 18.0.1
+ */
+public class ImageScaler {
+
+    /**
+     * The number of source pixels from which an image is scaled on several threads
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    /**
+     * The constructor of the utility class.
+     */
+    ImageScaler() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Scales an image to a new width and height.
+     *
+     * @param image     A {@link BufferedImage}: The image to be scaled
+     * @param newWidth  An {@link Integer int}: The new width for the image, at least 1
+     * @param newHeight An {@link Integer int}: The new height for the image, at least 1
+     * @return A {@link BufferedImage}: The scaled image, of type {@link BufferedImage#TYPE_INT_ARGB}
+     */
+    public static BufferedImage scale(BufferedImage image, int newWidth, int newHeight) {
+        if (newWidth < 1 || newHeight < 1) {
+            throw new IllegalArgumentException("The new size must be at least 1 x 1! Actual value: " + newWidth + " x "
+                    + newHeight);
+        }
+        Weights horizontal = new Weights(image.getWidth(), newWidth);
+        Weights vertical = new Weights(image.getHeight(), newHeight);
+        BufferedImage result = new BufferedImage(newWidth, newHeight, BufferedImage.TYPE_INT_ARGB);
+        int[] target = ((DataBufferInt) result.getRaster().getDataBuffer()).getData();
+
+        int bands = 1;
+        if ((long) image.getWidth() * image.getHeight() >= PARALLEL_THRESHOLD) {
+            bands = Math.min(newHeight, ForkJoinPool.getCommonPoolParallelism() * 4);
+        }
+        int totalBands = bands;
+        IntStream.range(0, totalBands).parallel().forEach(band -> scaleBand(image, horizontal, vertical, target,
+                band * newHeight / totalBands, (band + 1) * newHeight / totalBands));
+        return result;
+    }
+
+    /**
+     * Scales the source rows covered by a band of output rows
+     *
+     * @param image      The image to be scaled
+     * @param horizontal The weights of the source columns in each output column
+     * @param vertical   The weights of the source rows in each output row
+     * @param target     The pixels of the scaled image in ARGB
+     * @param from       The first output row of the band
+     * @param to         The output row after the last one of the band
+     */
+    private static void scaleBand(BufferedImage image, Weights horizontal, Weights vertical, int[] target, int from,
+                                  int to) {
+        boolean hasAlpha = image.getColorModel().hasAlpha();
+        int newWidth = horizontal.first.length;
+        int[] row = new int[image.getWidth()];
+        float[] scaledRow = new float[newWidth * 4];
+        float[] sums = new float[newWidth * 4];
+        int cachedRow = -1;
+        for (int y = from; y < to; y++) {
+            Arrays.fill(sums, 0);
+            for (int w = 0; w < vertical.count[y]; w++) {
+                int sourceRow = vertical.first[y] + w;
+                //the last source row of an output row is usually the first one of the next
+                if (sourceRow != cachedRow) {
+                    readRow(image, sourceRow, row);
+                    if (hasAlpha) {
+                        premultiply(row);
+                    }
+                    scaleRow(row, horizontal, scaledRow);
+                    cachedRow = sourceRow;
+                }
+                float weight = vertical.weights[y * vertical.stride + w];
+                for (int i = 0; i < sums.length; i++) {
+                    sums[i] += scaledRow[i] * weight;
+                }
+            }
+            for (int x = 0; x < newWidth; x++) {
+                int pixel = 0;
+                for (int channel = 0; channel < 4; channel++) {
+                    pixel |= Math.min(255, Math.round(sums[x * 4 + channel])) << (channel * 8);
+                }
+                target[y * newWidth + x] = hasAlpha ? unpremultiply(pixel) : pixel | 0xFF000000;
+            }
+        }
+    }
+
+    /**
+     * Reads a row of pixels in ARGB. Images storing their pixels as {@code int}s in ARGB or RGB are copied without
+     * converting every pixel, the alpha channel of RGB images is 0 then.
+     *
+     * @param image The image to be scaled
+     * @param y     The index of the row
+     * @param row   The array the pixels are written to
+     */
+    private static void readRow(BufferedImage image, int y, int[] row) {
+        if (image.getType() == BufferedImage.TYPE_INT_ARGB || image.getType() == BufferedImage.TYPE_INT_RGB) {
+            image.getRaster().getDataElements(0, y, row.length, 1, row);
+        } else {
+            image.getRGB(0, y, row.length, 1, row, 0, row.length);
+        }
+    }
+
+    /**
+     * Scales a row of pixels to the new width
+     *
+     * @param row        The pixels of the source row
+     * @param horizontal The weights of the source columns in each output column
+     * @param scaledRow  The array the four channels of each output pixel are written to, blue first
+     */
+    private static void scaleRow(int[] row, Weights horizontal, float[] scaledRow) {
+        for (int x = 0; x < horizontal.first.length; x++) {
+            float blue = 0;
+            float green = 0;
+            float red = 0;
+            float alpha = 0;
+            for (int w = 0; w < horizontal.count[x]; w++) {
+                int pixel = row[horizontal.first[x] + w];
+                float weight = horizontal.weights[x * horizontal.stride + w];
+                blue += (pixel & 0xFF) * weight;
+                green += ((pixel >> 8) & 0xFF) * weight;
+                red += ((pixel >> 16) & 0xFF) * weight;
+                alpha += (pixel >>> 24) * weight;
+            }
+            scaledRow[x * 4] = blue;
+            scaledRow[x * 4 + 1] = green;
+            scaledRow[x * 4 + 2] = red;
+            scaledRow[x * 4 + 3] = alpha;
+        }
+    }
+
+    /**
+     * Converts a row of pixels to premultiplied alpha, so each color channel holds its share of the pixel's color
+     *
+     * @param row The pixels of the row in ARGB
+     */
+    private static void premultiply(int[] row) {
+        for (int i = 0; i < row.length; i++) {
+            int alpha = row[i] >>> 24;
+            if (alpha != 255) {
+                int red = ((row[i] >> 16) & 0xFF) * alpha / 255;
+                int green = ((row[i] >> 8) & 0xFF) * alpha / 255;
+                int blue = (row[i] & 0xFF) * alpha / 255;
+                row[i] = (alpha << 24) | (red << 16) | (green << 8) | blue;
+            }
+        }
+    }
+
+    /**
+     * Converts a premultiplied pixel back to ARGB
+     *
+     * @param pixel The premultiplied pixel
+     * @return An {@link Integer int}: The pixel in ARGB
+     */
+    private static int unpremultiply(int pixel) {
+        int alpha = pixel >>> 24;
+        if (alpha == 255 || alpha == 0) {
+            return alpha == 0 ? 0 : pixel;
+        }
+        int red = Math.min(255, (((pixel >> 16) & 0xFF) * 255 + alpha / 2) / alpha);
+        int green = Math.min(255, (((pixel >> 8) & 0xFF) * 255 + alpha / 2) / alpha);
+        int blue = Math.min(255, ((pixel & 0xFF) * 255 + alpha / 2) / alpha);
+        return (alpha << 24) | (red << 16) | (green << 8) | blue;
+    }
+
+    /**
+     * The share of every source pixel along one axis in each output pixel, for scaling by area averaging
+     */
+    private static final class Weights {
+
+        /**
+         * The index of the first source pixel of each output pixel
+         */
+        private final int[] first;
+        /**
+         * The number of source pixels of each output pixel
+         */
+        private final int[] count;
+        /**
+         * The share of each source pixel in each output pixel, {@link #stride} entries reserved per output pixel
+         */
+        private final float[] weights;
+        /**
+         * The largest number of source pixels of an output pixel
+         */
+        private final int stride;
+
+        /**
+         * Computes the weights for scaling an axis from one length to another
+         *
+         * @param length    The length of the axis in the source image
+         * @param newLength The length of the axis in the scaled image
+         */
+        Weights(int length, int newLength) {
+            double scale = (double) length / newLength;
+            stride = (int) Math.ceil(scale) + 1;
+            first = new int[newLength];
+            count = new int[newLength];
+            weights = new float[newLength * stride];
+            for (int i = 0; i < newLength; i++) {
+                double start = i * scale;
+                double end = Math.min(length, (i + 1) * scale);
+                first[i] = (int) start;
+                int last = Math.min(length - 1, (int) Math.ceil(end) - 1);
+                count[i] = last - first[i] + 1;
+                for (int s = first[i]; s <= last; s++) {
+                    double covered = Math.min(end, s + 1.0) - Math.max(start, s);
+                    weights[i * stride + s - first[i]] = (float) (covered / (end - start));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package de.colorscheme.clustering;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The {@link AssignmentKernel} comparing as many pixels against a centroid per instruction as the widest vector
+ * registers of the CPU hold, 8 with AVX2 and 16 with AVX-512. <br>
+ * It keeps the smallest squared distance and the number of its centroid in one lane per pixel and replaces both
+ * wherever a centroid is strictly closer, so it finds the same centroids as the {@link ScalarAssignmentKernel}. The
+ * pixels left over at the end of a range are handed to the scalar loop. <br>
+ * Compiled for Java 17 into {@code META-INF/versions/17} of the jar and only loaded if the JVM was started with
+ * {@code --add-modules jdk.incubator.vector}.
+ *
+ * @author &copy; 2024 Elisa Johanna Woelk | elisa-johanna.woelk@outlook.de | @fenris_22127
+ * @version 1.0
+ * @since 18.0.1
+ */
+final class VectorAssignmentKernel implements AssignmentKernel {
+
+    /**
+     * The widest vector of {@code float} values the CPU supports
+     */
+    private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+    /**
+     * The vector of {@code int} values with the same number of lanes, holding the number of the nearest centroid
+     */
+    private static final VectorSpecies<Integer> INTS = VectorSpecies.of(int.class, FLOATS.vectorShape());
+
+    @Override
+    public void assign(float[] x, float[] y, float[] z, int from, int to, float[] centroids, int totalCentroids,
+                       int[] nearest) {
+        int lanes = FLOATS.length();
+        int upperBound = from + FLOATS.loopBound(to - from);
+        int p = from;
+        for (; p < upperBound; p += lanes) {
+            FloatVector px = FloatVector.fromArray(FLOATS, x, p);
+            FloatVector py = FloatVector.fromArray(FLOATS, y, p);
+            FloatVector pz = FloatVector.fromArray(FLOATS, z, p);
+            FloatVector minDist = FloatVector.broadcast(FLOATS, Float.MAX_VALUE);
+            IntVector best = IntVector.zero(INTS);
+            for (int i = 0; i < totalCentroids; i++) {
+                FloatVector dx = px.sub(centroids[i * 3]);
+                FloatVector dy = py.sub(centroids[i * 3 + 1]);
+                FloatVector dz = pz.sub(centroids[i * 3 + 2]);
+                FloatVector dist = dx.mul(dx).add(dy.mul(dy)).add(dz.mul(dz));
+                VectorMask<Float> closer = dist.lt(minDist);
+                minDist = minDist.blend(dist, closer);
+                best = best.blend(i, closer.cast(INTS));
+            }
+            best.intoArray(nearest, p - from);
+        }
+        ScalarAssignmentKernel.assignRange(x, y, z, p, to, centroids, totalCentroids, nearest, p - from);
+    }
+}
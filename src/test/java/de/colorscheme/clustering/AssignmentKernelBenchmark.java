@@ -0,0 +1,132 @@
+package de.colorscheme.clustering;
+
+import javafx.geometry.Point3D;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures how long assigning every pixel to its nearest centroid takes with
+ * <ul>
+ *     <li>
+ *         the {@link KMeansMode#SEQUENTIAL sequential} engine, one {@link Point3D} and one square root per distance,
+ *     </li>
+ *     <li>
+ *         the {@link ScalarAssignmentKernel} and
+ *     </li>
+ *     <li>
+ *         the {@link VectorKMeans#getKernel() kernel} loaded on this JVM, the {@code VectorAssignmentKernel} if it was
+ *         started with {@code --add-modules jdk.incubator.vector}.
+ *     </li>
+ * </ul>
+ * Run with {@code gradlew benchmarkKernels}. Checks that both kernels find the same centroids before printing the
+ * times.
+ *
+ * @author &copy; 2024 Elisa Johanna Woelk | elisa-johanna.woelk@outlook.de | @fenris_22127
+ * @version 1.0
+ * @since 18.0.1
+ */
+public final class AssignmentKernelBenchmark {
+
+    /**
+     * The number of pixels, as many as in a 12 megapixel photo
+     */
+    private static final int PIXELS = 4000 * 3000;
+    /**
+     * The number of passes over all pixels measured for each variant, after as many passes for warming up
+     */
+    private static final int PASSES = 10;
+
+    /**
+     * Private constructor to hide the public one
+     */
+    private AssignmentKernelBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark for 4, 8 and 16 centroids
+     *
+     * @param args Not used
+     */
+    public static void main(String[] args) {
+        Random random = new Random(1);
+        float[] x = new float[PIXELS];
+        float[] y = new float[PIXELS];
+        float[] z = new float[PIXELS];
+        for (int p = 0; p < PIXELS; p++) {
+            x[p] = random.nextInt(256);
+            y[p] = random.nextInt(256);
+            z[p] = random.nextInt(256);
+        }
+        AssignmentKernel scalar = new ScalarAssignmentKernel();
+        AssignmentKernel best = VectorKMeans.getKernel();
+        System.out.printf("Kernel loaded: %s%n", best.getClass().getSimpleName());
+
+        for (int k : new int[]{4, 8, 16}) {
+            List<Point3D> centroidList = new ArrayList<>();
+            float[] centroids = new float[k * 3];
+            for (int i = 0; i < k * 3; i++) {
+                centroids[i] = random.nextFloat() * 255;
+            }
+            for (int i = 0; i < k; i++) {
+                centroidList.add(new Point3D(centroids[i * 3], centroids[i * 3 + 1], centroids[i * 3 + 2]));
+            }
+            int[] expected = new int[PIXELS];
+            int[] actual = new int[PIXELS];
+            scalar.assign(x, y, z, 0, PIXELS, centroids, k, expected);
+            best.assign(x, y, z, 0, PIXELS, centroids, k, actual);
+            if (!Arrays.equals(expected, actual)) {
+                throw new IllegalStateException("The kernels found different centroids for k = " + k + "!");
+            }
+
+            double sequential = time(() -> assignSequential(x, y, z, centroidList, expected));
+            double scalarKernel = time(() -> scalar.assign(x, y, z, 0, PIXELS, centroids, k, expected));
+            double bestKernel = time(() -> best.assign(x, y, z, 0, PIXELS, centroids, k, actual));
+            System.out.printf("k = %2d: sequential %7.1f ms, scalar kernel %6.1f ms, %s %6.1f ms "
+                            + "(%.1fx faster than sequential, %.1fx faster than scalar kernel)%n",
+                    k, sequential, scalarKernel, best.getClass().getSimpleName(), bestKernel,
+                    sequential / bestKernel, scalarKernel / bestKernel);
+        }
+    }
+
+    /**
+     * Assigns every pixel the way {@link KMeansMode#SEQUENTIAL} does
+     *
+     * @param x            The red values of all pixels
+     * @param y            The green values of all pixels
+     * @param z            The blue values of all pixels
+     * @param centroidList The centroids
+     * @param nearest      The array the number of the nearest centroid of each pixel is written to
+     */
+    private static void assignSequential(float[] x, float[] y, float[] z, List<Point3D> centroidList, int[] nearest) {
+        for (int p = 0; p < x.length; p++) {
+            double minDist = Double.MAX_VALUE;
+            for (int i = 0; i < centroidList.size(); i++) {
+                double dist = ColorData.euclideanDistance(centroidList.get(i), x[p], y[p], z[p]);
+                if (dist < minDist) {
+                    minDist = dist;
+                    nearest[p] = i;
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the passed variant {@link #PASSES} times for warming up and measures {@link #PASSES} more runs
+     *
+     * @param pass A single pass over all pixels
+     * @return A {@link Double double} - The average time of a measured pass in milliseconds
+     */
+    private static double time(Runnable pass) {
+        for (int i = 0; i < PASSES; i++) {
+            pass.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < PASSES; i++) {
+            pass.run();
+        }
+        return (System.nanoTime() - start) / 1e6 / PASSES;
+    }
+}
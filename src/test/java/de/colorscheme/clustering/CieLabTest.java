@@ -0,0 +1,88 @@
+package de.colorscheme.clustering;
+
+import javafx.geometry.Point3D;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static de.colorscheme.clustering.StripedImages.STRIPES;
+import static de.colorscheme.clustering.StripedImages.sorted;
+import static de.colorscheme.clustering.StripedImages.stripeColors;
+import static de.colorscheme.clustering.StripedImages.stripedImage;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CieLabTest {
+
+    /**
+     * Converts a color from sRGB to Lab with the exact formulas, without any lookup table
+     */
+    private static double[] exactLab(double red, double green, double blue) {
+        double r = exactLinear(red / 255);
+        double g = exactLinear(green / 255);
+        double b = exactLinear(blue / 255);
+        double fx = exactTransfer((0.4124564 * r + 0.3575761 * g + 0.1804375 * b) / 0.95047);
+        double fy = exactTransfer(0.2126729 * r + 0.7151522 * g + 0.0721750 * b);
+        double fz = exactTransfer((0.0193339 * r + 0.1191920 * g + 0.9503041 * b) / 1.08883);
+        return new double[]{116 * fy - 16, 500 * (fx - fy) + CieLab.AB_OFFSET, 200 * (fy - fz) + CieLab.AB_OFFSET};
+    }
+
+    private static double exactLinear(double v) {
+        return v <= 0.04045 ? v / 12.92 : Math.pow((v + 0.055) / 1.055, 2.4);
+    }
+
+    private static double exactTransfer(double t) {
+        return t > 216.0 / 24389.0 ? Math.cbrt(t) : (24389.0 / 27.0 * t + 16) / 116;
+    }
+
+    @Test
+    void testLookupTablesMatchExactFormulas() {
+        PixelStore rgb = new PixelStore();
+        for (int r = 0; r < 256; r += 15) {
+            for (int g = 0; g < 256; g += 15) {
+                for (int b = 0; b < 256; b += 15) {
+                    rgb.add(r, g, b);
+                    if (r < 255 && g < 255 && b < 255) {
+                        //mean colors aren't whole numbers and are interpolated between the table entries
+                        rgb.add(r + 0.37f, g + 0.5f, b + 0.81f);
+                    }
+                }
+            }
+        }
+        PixelStore lab = CieLab.toLab(rgb);
+
+        assertEquals(rgb.size(), lab.size());
+        for (int p = 0; p < rgb.size(); p++) {
+            double[] expected = exactLab(rgb.getX(p), rgb.getY(p), rgb.getZ(p));
+            assertEquals(expected[0], lab.getX(p), 0.01);
+            assertEquals(expected[1], lab.getY(p), 0.01);
+            assertEquals(expected[2], lab.getZ(p), 0.01);
+        }
+    }
+
+    @Test
+    void testCornersOfSrgbSurviveRoundTrip() {
+        for (int corner = 0; corner < 8; corner++) {
+            Point3D rgb = new Point3D((corner & 4) == 0 ? 0 : 255, (corner & 2) == 0 ? 0 : 255,
+                    (corner & 1) == 0 ? 0 : 255);
+            Point3D roundTrip = CieLab.toRgb(CieLab.toLab(rgb));
+
+            assertEquals(rgb.getX(), roundTrip.getX(), 0.5);
+            assertEquals(rgb.getY(), roundTrip.getY(), 0.5);
+            assertEquals(rgb.getZ(), roundTrip.getZ(), 0.5);
+        }
+    }
+
+    @Test
+    void testLabClusteringReturnsSrgbCentroids() {
+        ColorData colorData = ColorData.createColorData(stripedImage());
+        KMeans.kMeans(colorData, STRIPES.length, new KMeansConfig().withColorSpace(ClusteringColorSpace.LAB));
+
+        List<Point3D> expected = sorted(stripeColors());
+        List<Point3D> centroids = sorted(colorData.getCentroids());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getX(), centroids.get(i).getX(), 0.5);
+            assertEquals(expected.get(i).getY(), centroids.get(i).getY(), 0.5);
+            assertEquals(expected.get(i).getZ(), centroids.get(i).getZ(), 0.5);
+        }
+    }
+}
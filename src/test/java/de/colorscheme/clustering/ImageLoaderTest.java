@@ -0,0 +1,51 @@
+package de.colorscheme.clustering;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import static de.colorscheme.clustering.StripedImages.STRIPES;
+import static de.colorscheme.clustering.StripedImages.sorted;
+import static de.colorscheme.clustering.StripedImages.stripedImage;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageLoaderTest {
+
+    @Test
+    void testReadSubsamplesLargeImages() throws IOException {
+        File file = File.createTempFile("stripes", ".png");
+        file.deleteOnExit();
+        ImageIO.write(stripedImage(), "png", file);
+
+        assertEquals(new Dimension(90, 60), ImageLoader.readSize(file));
+        BufferedImage image = ImageLoader.read(file, 1000);
+        assertTrue(image.getWidth() * image.getHeight() <= 1000);
+        assertEquals(ImageLoader.getSubsampling(90, 60, 1000), 90 / image.getWidth());
+        assertEquals(90, ImageLoader.read(file, 90 * 60).getWidth());
+
+        ColorData colorData = ColorData.createColorData(image);
+        KMeans.kMeans(colorData, STRIPES.length);
+        ColorData expected = ColorData.createColorData(stripedImage());
+        KMeans.kMeans(expected, STRIPES.length);
+        assertEquals(sorted(expected.getCentroids()), sorted(colorData.getCentroids()));
+    }
+
+    @Test
+    void testStreamedHistogramCountsEveryPixel() throws IOException {
+        File file = File.createTempFile("stripes", ".tif");
+        file.deleteOnExit();
+        assertTrue(ImageIO.write(stripedImage(), "tif", file));
+
+        ColorData streamed = ColorData.createHistogramColorData(file, ColorHistogram.EXACT_BITS, 500);
+        ColorData expected = ColorData.createHistogramColorData(stripedImage(), ColorHistogram.EXACT_BITS);
+        assertEquals(90 * 60, streamed.getPixels().getTotalWeight());
+        KMeans.kMeans(streamed, STRIPES.length);
+        KMeans.kMeans(expected, STRIPES.length);
+        assertEquals(sorted(expected.getCentroids()), sorted(streamed.getCentroids()));
+    }
+}
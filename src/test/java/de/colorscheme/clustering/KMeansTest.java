@@ -0,0 +1,238 @@
+package de.colorscheme.clustering;
+
+import javafx.geometry.Point3D;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static de.colorscheme.clustering.StripedImages.STRIPES;
+import static de.colorscheme.clustering.StripedImages.noisyStripedImage;
+import static de.colorscheme.clustering.StripedImages.sorted;
+import static de.colorscheme.clustering.StripedImages.stripeColors;
+import static de.colorscheme.clustering.StripedImages.stripedImage;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KMeansTest {
+
+    @Test
+    void testParallelMatchesSequential() {
+        ColorData sequential = ColorData.createColorData(stripedImage());
+        KMeans.kMeans(sequential, STRIPES.length);
+
+        ColorData parallel = ColorData.createColorData(stripedImage());
+        KMeans.kMeans(parallel, STRIPES.length, new KMeansConfig().withMode(KMeansMode.PARALLEL).withThreads(3));
+
+        assertEquals(sorted(sequential.getCentroids()), sorted(parallel.getCentroids()));
+    }
+
+    @Test
+    void testHamerlyMatchesSequential() {
+        ColorData sequential = ColorData.createColorData(stripedImage());
+        KMeans.kMeans(sequential, STRIPES.length);
+
+        ColorData hamerly = ColorData.createColorData(stripedImage());
+        KMeansReport report = KMeans.kMeans(hamerly, STRIPES.length, new KMeansConfig().withMode(KMeansMode.HAMERLY));
+
+        assertEquals(sorted(sequential.getCentroids()), sorted(hamerly.getCentroids()));
+        assertEquals(report.getIterations(), report.getSkippedDistances().size());
+        assertTrue(report.getSkippedDistances().get(report.getIterations() - 1) > 0);
+    }
+
+    @Test
+    void testKMeansParallelInitializationFindsAllColors() {
+        ColorData colorData = ColorData.createColorData(stripedImage());
+        KMeans.kMeans(colorData, STRIPES.length,
+                new KMeansConfig().withInitialization(KMeansInitialization.K_MEANS_PARALLEL));
+
+        List<Point3D> expected = stripeColors();
+        assertEquals(sorted(expected), sorted(colorData.getCentroids()));
+    }
+
+    @Test
+    void testKMeansParallelInitializationDoesNotDependOnThreads() {
+        //larger than one chunk of pixels, so the distances are compared on several threads
+        BufferedImage image = new BufferedImage(180, 80, BufferedImage.TYPE_INT_RGB);
+        image.createGraphics().drawImage(noisyStripedImage(5), 0, 0, image.getWidth(), image.getHeight(), null);
+        KMeansConfig config = new KMeansConfig().withInitialization(KMeansInitialization.K_MEANS_PARALLEL).withSeed(11)
+                .withConvergence(new KMeansConvergence().withMaxIterations(1));
+
+        ColorData single = ColorData.createColorData(image);
+        KMeans.kMeans(single, 8, config.withThreads(1));
+        ColorData parallel = ColorData.createColorData(image);
+        KMeans.kMeans(parallel, 8, config.withThreads(4));
+
+        assertEquals(single.getCentroids(), parallel.getCentroids());
+    }
+
+    @Test
+    void testKMeansParallelInitializationWithOneThreadStaysOnCallingThread() {
+        //records every thread reading a pixel, more pixels than one chunk so the comparisons are split
+        Set<Thread> readers = ConcurrentHashMap.newKeySet();
+        PixelStore pixels = new PixelStore(20000) {
+            @Override
+            public float getX(int index) {
+                readers.add(Thread.currentThread());
+                return super.getX(index);
+            }
+        };
+        Random random = new Random(5);
+        for (int p = 0; p < 20000; p++) {
+            pixels.add(random.nextInt(256), random.nextInt(256), random.nextInt(256));
+        }
+        ColorData colorData = new ColorData(pixels);
+        colorData.setSeed(11);
+        KMeansParallelInitializer.initialize(colorData, 8, 1);
+
+        assertEquals(8, colorData.getCentroids().size());
+        assertEquals(Collections.singleton(Thread.currentThread()), readers);
+    }
+
+    @Test
+    void testConvergencePolicyReportsStopReason() {
+        ColorData colorData = ColorData.createColorData(stripedImage());
+        KMeansReport report = KMeans.kMeans(colorData, STRIPES.length,
+                new KMeansConfig().withConvergence(new KMeansConvergence().withMaxIterations(1)));
+
+        assertEquals(1, report.getIterations());
+        assertEquals(KMeansStopReason.MAX_ITERATIONS, report.getStopReason());
+    }
+
+    @Test
+    void testQuantizersFindAllColors() {
+        List<Point3D> expected = stripeColors();
+        for (PaletteEngine engine : new PaletteEngine[]{PaletteEngine.OCTREE, PaletteEngine.WU}) {
+            ColorData colorData = ColorData.createColorData(stripedImage());
+            PaletteEngine.fromName(engine.getEngineName()).extractPalette(colorData, STRIPES.length);
+
+            assertEquals(sorted(expected), sorted(colorData.getCentroids()));
+            assertEquals(STRIPES.length, colorData.getCentroids().size());
+        }
+    }
+
+    @Test
+    void testAutoKSelectorPicksNumberOfStripes() {
+        ColorData colorData = ColorData.createColorData(stripedImage());
+        AutoKResult result = AutoKSelector.select(colorData, 2, STRIPES.length + 2,
+                new KMeansConfig().withInitialization(KMeansInitialization.WU).withThreads(2));
+
+        assertEquals(STRIPES.length, result.getK());
+        assertEquals(STRIPES.length, colorData.getCentroids().size());
+        assertEquals(STRIPES.length + 1, result.getScores().size());
+    }
+
+    @Test
+    void testSeededRestartsAreReproducible() {
+        ColorData first = ColorData.createColorData(stripedImage());
+        KMeans.kMeans(first, 2, new KMeansConfig().withSeed(42).withRestarts(4).withThreads(1));
+        ColorData second = ColorData.createColorData(stripedImage());
+        KMeans.kMeans(second, 2, new KMeansConfig().withSeed(42).withRestarts(4).withThreads(4));
+
+        assertEquals(first.getCentroids(), second.getCentroids());
+    }
+
+    @Test
+    void testVectorKernelMatchesScalarKernel() {
+        Random random = new Random(5);
+        float[][] channels = new float[3][1003];
+        for (float[] channel : channels) {
+            for (int p = 0; p < channel.length; p++) {
+                channel[p] = random.nextInt(256);
+            }
+        }
+        float[] centroids = new float[7 * 3];
+        for (int i = 0; i < centroids.length; i++) {
+            centroids[i] = random.nextFloat() * 255;
+        }
+        int[] expected = new int[1000];
+        int[] actual = new int[1000];
+        new ScalarAssignmentKernel().assign(channels[0], channels[1], channels[2], 3, 1003, centroids, 7, expected);
+        VectorKMeans.getKernel().assign(channels[0], channels[1], channels[2], 3, 1003, centroids, 7, actual);
+
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    void testPruningEnginesMatchSequential() {
+        BufferedImage image = noisyStripedImage(9);
+        ColorData sequential = ColorData.createColorData(image);
+        KMeans.kMeans(sequential, 8, new KMeansConfig().withSeed(7));
+        for (KMeansMode mode : new KMeansMode[]{KMeansMode.KD_TREE, KMeansMode.GRID}) {
+            ColorData pruned = ColorData.createColorData(image);
+            KMeans.kMeans(pruned, 8, new KMeansConfig().withSeed(7).withMode(mode));
+
+            assertEquals(sequential.getCentroids(), pruned.getCentroids());
+        }
+    }
+
+    @Test
+    void testPaletteHierarchyMergesDownToStripes() {
+        ColorData colorData = ColorData.createColorData(stripedImage());
+        PaletteHierarchy hierarchy = PaletteHierarchy.cluster(colorData, STRIPES.length + 2, new KMeansConfig());
+        assertEquals(colorData.getCentroids(), hierarchy.getPalette(STRIPES.length + 2));
+
+        ColorData expected = ColorData.createColorData(stripedImage());
+        KMeans.kMeans(expected, STRIPES.length);
+        hierarchy.applyTo(colorData, STRIPES.length);
+
+        assertEquals(sorted(expected.getCentroids()), sorted(colorData.getCentroids()));
+        assertEquals(1, hierarchy.getPalette(1).size());
+    }
+
+    @Test
+    void testWarmStartFromConvergedPaletteStopsAtOnce() {
+        BufferedImage image = noisyStripedImage(3);
+        ColorData cold = ColorData.createColorData(image);
+        KMeans.kMeans(cold, STRIPES.length, new KMeansConfig().withSeed(1));
+        ColorData warm = ColorData.createColorData(image);
+        KMeans.kMeans(warm, STRIPES.length + 1, new KMeansConfig().withInitialCentroids(cold.getCentroids()));
+        assertEquals(STRIPES.length + 1, warm.getCentroids().size());
+
+        KMeansReport report = KMeans.kMeans(warm, STRIPES.length,
+                new KMeansConfig().withInitialCentroids(cold.getCentroids()));
+        assertEquals(cold.getCentroids(), warm.getCentroids());
+        assertTrue(report.getIterations() <= 2);
+    }
+
+    @Test
+    void testMoreColorsThanHistogramBinsRepeatsCentroids() {
+        BufferedImage image = new BufferedImage(40, 20, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, STRIPES[x * 2 / image.getWidth()]);
+            }
+        }
+        ColorData colorData = ColorData.createHistogramColorData(image, 6);
+        KMeans.kMeans(colorData, 6);
+        assertEquals(6, colorData.getCentroids().size());
+        for (Point3D centroid : colorData.getCentroids()) {
+            assertTrue(centroid.getX() >= 0 && centroid.getY() >= 0 && centroid.getZ() >= 0);
+        }
+        assertEquals(2, colorData.getCentroids().stream().distinct().count());
+
+        ColorData warm = ColorData.createHistogramColorData(image, 6);
+        KMeans.kMeans(warm, 6, new KMeansConfig().withInitialCentroids(colorData.getCentroids().subList(0, 1)));
+        assertEquals(2, warm.getCentroids().stream().distinct().count());
+
+        ColorData parallel = ColorData.createHistogramColorData(image, 6);
+        KMeans.kMeans(parallel, 6, new KMeansConfig().withInitialization(KMeansInitialization.K_MEANS_PARALLEL));
+        assertEquals(6, parallel.getCentroids().size());
+        assertEquals(2, parallel.getCentroids().stream().distinct().count());
+
+        //K-Means|| repeats the two candidates in turn instead of drawing random pixels
+        ColorData initialized = ColorData.createHistogramColorData(image, 6);
+        initialized.setSeed(3);
+        KMeansParallelInitializer.initialize(initialized, 6, 1);
+        List<Integer> indices = initialized.getIndicesOfCentroids();
+        assertEquals(2, indices.stream().distinct().count());
+        for (int i = 2; i < indices.size(); i++) {
+            assertEquals(indices.get(i % 2), indices.get(i));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package de.colorscheme.clustering;
+
+import org.junit.jupiter.api.Test;
+
+import static de.colorscheme.clustering.StripedImages.STRIPES;
+import static de.colorscheme.clustering.StripedImages.sorted;
+import static de.colorscheme.clustering.StripedImages.stripeColors;
+import static de.colorscheme.clustering.StripedImages.stripedImage;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MiniBatchKMeansTest {
+
+    @Test
+    void testMiniBatchFindsStripesAndStopsWithoutImprovement() {
+        ColorData colorData = ColorData.createColorData(stripedImage());
+        KMeansConfig config = new KMeansConfig().withMode(KMeansMode.MINI_BATCH).withSeed(7).withBatchSize(256)
+                .withBatchIterations(100);
+        KMeansReport report = KMeans.kMeans(colorData, STRIPES.length, config);
+
+        assertEquals(sorted(stripeColors()), sorted(colorData.getCentroids()));
+        //the batches of the uniform stripes have no errors from the start, so the smoothed errors never improve
+        assertEquals(KMeansStopReason.SSE_CONVERGED, report.getStopReason());
+        assertTrue(report.getIterations() < config.getBatchIterations());
+    }
+
+    @Test
+    void testMiniBatchPolicyOnlyAppliesIterationCap() {
+        ColorData colorData = ColorData.createColorData(stripedImage());
+        //the batches pass NaN for the previous errors and the changed share, so only the cap of 5 batches applies
+        KMeansReport report = KMeans.kMeans(colorData, STRIPES.length, new KMeansConfig()
+                .withMode(KMeansMode.MINI_BATCH).withSeed(7).withBatchSize(256).withBatchIterations(100)
+                .withConvergence(new KMeansConvergence().withMaxIterations(5)));
+
+        assertEquals(5, report.getIterations());
+        assertEquals(KMeansStopReason.MAX_ITERATIONS, report.getStopReason());
+    }
+}
@@ -0,0 +1,52 @@
+package de.colorscheme.clustering;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RasterReaderTest {
+
+    private static BufferedImage randomImage(int type) {
+        Random random = new Random(type);
+        BufferedImage image = new BufferedImage(37, 23, type);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        return image;
+    }
+
+    private static void assertRowsMatchGetRgb(BufferedImage image) {
+        int[] row = new int[image.getWidth()];
+        for (int y = 0; y < image.getHeight(); y++) {
+            RasterReader.readRow(image, y, row);
+            for (int x = 0; x < image.getWidth(); x++) {
+                assertEquals(image.getRGB(x, y) & 0xFFFFFF, row[x]);
+            }
+        }
+    }
+
+    @Test
+    void testReadRowMatchesGetRgb() {
+        int[] types = {BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_3BYTE_BGR,
+                BufferedImage.TYPE_4BYTE_ABGR, BufferedImage.TYPE_USHORT_565_RGB, BufferedImage.TYPE_BYTE_GRAY};
+        for (int type : types) {
+            assertRowsMatchGetRgb(randomImage(type));
+        }
+    }
+
+    @Test
+    void testReadRowOfSubImageMatchesGetRgb() {
+        int[] types = {BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_3BYTE_BGR,
+                BufferedImage.TYPE_4BYTE_ABGR};
+        for (int type : types) {
+            //the raster of a sub-image starts inside the data of its parent, at a non-zero sample model translate
+            BufferedImage subImage = randomImage(type).getSubimage(5, 7, 20, 11);
+            assertRowsMatchGetRgb(subImage);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package de.colorscheme.clustering;
+
+import javafx.geometry.Point3D;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * The test images shared by the clustering tests: vertical stripes of a few colors, which every engine has to find
+ */
+final class StripedImages {
+
+    /**
+     * The colors the test image is painted with, one per vertical stripe
+     */
+    static final int[] STRIPES = {0xC81E1E, 0x14B428, 0x1E28D2};
+
+    private StripedImages() {
+    }
+
+    static BufferedImage stripedImage() {
+        BufferedImage image = new BufferedImage(90, 60, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, STRIPES[x * STRIPES.length / image.getWidth()]);
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Paints the stripes onto a smaller image and flips random low bits of every pixel, so each stripe becomes a cloud
+     * of similar colors
+     */
+    static BufferedImage noisyStripedImage(long seed) {
+        Random random = new Random(seed);
+        BufferedImage image = new BufferedImage(60, 40, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, STRIPES[x * STRIPES.length / image.getWidth()] ^ random.nextInt(0x202020));
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Returns the colors of the stripes as the centroids an engine is expected to find, in the order of the stripes
+     */
+    static List<Point3D> stripeColors() {
+        List<Point3D> colors = new ArrayList<>();
+        for (int stripe : STRIPES) {
+            colors.add(new Point3D((stripe >> 16) & 0xFF, (stripe >> 8) & 0xFF, stripe & 0xFF));
+        }
+        return colors;
+    }
+
+    static List<Point3D> sorted(List<Point3D> centroids) {
+        return centroids.stream()
+                .sorted(Comparator.comparingDouble(Point3D::getX)
+                        .thenComparingDouble(Point3D::getY)
+                        .thenComparingDouble(Point3D::getZ))
+                .collect(Collectors.toList());
+    }
+}
@@ -1,16 +1,20 @@
 package de.colorscheme.output;
 
+import de.colorscheme.app.AppController;
 import org.junit.jupiter.api.Test;
 
 import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 class OutputColorsTest {
 
     @Test
@@ -22,6 +26,29 @@ class OutputColorsTest {
         metaList.forEach(System.out::println);
     }
 
+    @Test
+    void testReadMetaDataFromHeader() throws IOException {
+        File file = File.createTempFile("meta", ".png");
+        file.deleteOnExit();
+        ImageIO.write(new BufferedImage(90, 60, BufferedImage.TYPE_INT_ARGB), "png", file);
+
+        Map<MetaType, String> values = new EnumMap<>(MetaType.class);
+        OutputColors.readMetaData(file.toPath()).forEach(meta -> values.put(meta.getType(), meta.getData()));
+        assertEquals("90 px", values.get(MetaType.FILE_WIDTH));
+        assertEquals("60 px", values.get(MetaType.FILE_HEIGHT));
+        assertEquals("4", values.get(MetaType.FILE_COLOR_COMPONENTS));
+        assertEquals("32", values.get(MetaType.FILE_BIT_DEPTH));
+        assertEquals(AppController.getResBundle().getString("metaAlphaYes"), values.get(MetaType.FILE_ALPHA));
+    }
+
+    @Test
+    void testReadMetaDataOfMissingFile() {
+        Path missing = Paths.get(System.getProperty("java.io.tmpdir"), "missing", "image.png");
+        for (MetaData meta : OutputColors.readMetaData(missing)) {
+            assertEquals(AppController.getResBundle().getString("noAccess"), meta.getData());
+        }
+    }
+
     @Test
     void testReturn() {
         testInterrupted();
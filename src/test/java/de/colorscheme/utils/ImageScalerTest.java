@@ -0,0 +1,57 @@
+package de.colorscheme.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ImageScalerTest {
+
+    private static void assertChannelsWithin(int expected, int actual, int tolerance) {
+        for (int shift = 0; shift < 32; shift += 8) {
+            assertEquals((expected >>> shift) & 0xFF, (actual >>> shift) & 0xFF, tolerance);
+        }
+    }
+
+    @Test
+    void testScaleUpKeepsHalves() {
+        BufferedImage image = new BufferedImage(6, 4, BufferedImage.TYPE_INT_RGB);
+        int[] colors = new int[6 * 4];
+        for (int i = 0; i < colors.length; i++) {
+            colors[i] = i % 6 < 3 ? 0xC81E1E : 0x1E28D2;
+        }
+        image.setRGB(0, 0, 6, 4, colors, 0, 6);
+
+        BufferedImage scaled = ImageScaler.scale(image, 10, 7);
+        assertEquals(10, scaled.getWidth());
+        assertEquals(7, scaled.getHeight());
+        //the edge between the halves falls between two output columns, so no output pixel mixes them
+        for (int y = 0; y < scaled.getHeight(); y++) {
+            for (int x = 0; x < scaled.getWidth(); x++) {
+                assertEquals(x < 5 ? 0xFFC81E1E : 0xFF1E28D2, scaled.getRGB(x, y));
+            }
+        }
+    }
+
+    @Test
+    void testScaleDownAveragesCoveredArea() {
+        BufferedImage image = new BufferedImage(4, 2, BufferedImage.TYPE_3BYTE_BGR);
+        int[] colors = {0x000000, 0x404040, 0xFF0000, 0xFF0000, 0x808080, 0xC0C0C0, 0x0000FF, 0x0000FF};
+        image.setRGB(0, 0, 4, 2, colors, 0, 4);
+
+        BufferedImage scaled = ImageScaler.scale(image, 2, 1);
+        assertChannelsWithin(0xFF606060, scaled.getRGB(0, 0), 0);
+        assertChannelsWithin(0xFF800080, scaled.getRGB(1, 0), 1);
+    }
+
+    @Test
+    void testTransparentPixelsDontDarkenColors() {
+        BufferedImage image = new BufferedImage(2, 2, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(0, 0, 0xFFC81E1E);
+        image.setRGB(0, 1, 0xFFC81E1E);
+
+        BufferedImage scaled = ImageScaler.scale(image, 1, 1);
+        assertChannelsWithin(0x80C81E1E, scaled.getRGB(0, 0), 1);
+    }
+}